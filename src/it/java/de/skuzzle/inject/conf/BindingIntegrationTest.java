@@ -15,6 +15,10 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -41,8 +45,17 @@ public class BindingIntegrationTest {
     @Inject
     private JsonInterface jsonContent;
     @Inject
+    @Named("lazy")
+    private JsonInterface lazyJsonContent;
+    @Inject
     private String textContent;
     @Inject
+    @Named("async")
+    private CompletionStage<String> asyncTextContent;
+    @Inject
+    @Named("asyncSingleton")
+    private Provider<CompletionStage<String>> asyncSingleton;
+    @Inject
     private PropertiesInterface propertiesContent;
     @Inject
     private Properties props;
@@ -57,6 +70,9 @@ public class BindingIntegrationTest {
     @Inject
     @Named("bufferedFile")
     private Provider<String> bufferedString;
+    @Inject
+    @Named("watchedFile")
+    private Provider<String> watchedString;
 
     private File tempFile;
 
@@ -120,6 +136,12 @@ public class BindingIntegrationTest {
                             .containingText()
                             .named("bufferedFile")
                             .using(binder());
+                    Resources.bind().watching()
+                            .fileResource(BindingIntegrationTest.this.tempFile)
+                            .encodedWithSystemDefaultCharset()
+                            .containingText()
+                            .named("watchedFile")
+                            .using(binder());
                 } catch (final IOException | URISyntaxException e) {
                     throw new RuntimeException(e);
                 }
@@ -138,12 +160,35 @@ public class BindingIntegrationTest {
                         .to(JsonInterface.class)
                         .using(binder());
 
+                Resources.bind().constant()
+                        .classPathResource("test.json")
+                        .encodedWith(StandardCharsets.UTF_8)
+                        .containingLazyJson()
+                        .to(JsonInterface.class)
+                        .named("lazy")
+                        .using(binder());
+
                 Resources.bind().cached(new TestCachingStrategy())
                         .classPathResource("test.txt")
                         .encodedWith("UTF-8")
                         .containingText()
                         .using(binder());
 
+                Resources.bind()
+                        .classPathResource("test.txt")
+                        .encodedWith("UTF-8")
+                        .containingText()
+                        .named("async")
+                        .usingAsync(binder(), ForkJoinPool.commonPool());
+
+                Resources.bind()
+                        .classPathResource("test.txt")
+                        .encodedWith("UTF-8")
+                        .containingText()
+                        .named("asyncSingleton")
+                        .in(Singleton.class)
+                        .usingAsync(binder(), ForkJoinPool.commonPool());
+
                 Resources.bind().changing()
                         .classPathResource("test.properties")
                         .containingProperties()
@@ -186,11 +231,35 @@ public class BindingIntegrationTest {
         assertEquals("abc", this.jsonContent.getSample().getObject());
     }
 
+    @Test
+    public void testLazyJson() throws Exception {
+        assertArrayEquals(new int[] { 1, 2, 3 }, this.lazyJsonContent.getArray());
+        assertEquals("abc", this.lazyJsonContent.getSample().getObject());
+        assertArrayEquals(new String[] { "a", "b", "c" },
+                this.lazyJsonContent.getSampleObject().getContent());
+    }
+
     @Test
     public void testPlainText() throws Exception {
         assertEquals("just a text file öäü\n:D", this.textContent);
     }
 
+    @Test
+    public void testAsyncText() throws Exception {
+        assertEquals("just a text file öäü\n:D",
+                this.asyncTextContent.toCompletableFuture().get());
+    }
+
+    @Test
+    public void testAsyncSingletonStagesAreCopies() throws Exception {
+        final CompletableFuture<String> first = this.asyncSingleton.get()
+                .toCompletableFuture();
+        first.obtrudeValue("foo");
+
+        assertEquals("just a text file öäü\n:D",
+                this.asyncSingleton.get().toCompletableFuture().get());
+    }
+
     @Test
     public void testConvertedObjectFromJson() throws Exception {
         assertArrayEquals(new String[] { "a", "b", "c" },
@@ -203,13 +272,34 @@ public class BindingIntegrationTest {
                 this.propertiesContent.getSampleObject().getContent());
     }
 
+    @Test
+    public void testCoercedValuesFromProperties() throws Exception {
+        assertEquals(1337, this.propertiesContent.getIntValue());
+        assertEquals(13.37, this.propertiesContent.getDoubleValue(), 0.001);
+    }
+
     @Test
     public void testReloadCachedResource() throws Exception {
         assertEquals("test", this.tempString.get());
         writeString("foobar");
+        // polling strategies are consulted at most once per check interval
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(
+                CachedTextResource.CHECK_INTERVAL_NANOS) + 1);
         assertEquals("foobar", this.tempString.get());
     }
 
+    @Test
+    public void testReloadWatchedResource() throws Exception {
+        assertEquals("test", this.watchedString.get());
+        writeString("foobar");
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!"foobar".equals(this.watchedString.get())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("foobar", this.watchedString.get());
+    }
+
     @Test
     public void testConstantResource() throws Exception {
         assertEquals("test", this.bufferedString.get());
@@ -0,0 +1,93 @@
+package de.skuzzle.inject.conf;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.CharStreams;
+
+/**
+ * Measures reading a cached file resource from a growing number of threads. All
+ * threads share the same resource.
+ *
+ * @author Simon Taddiken
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachedTextResourceBenchmark {
+
+    @Param({ "changing", "constant" })
+    public String strategy;
+
+    @Param({ "false", "true" })
+    public boolean knownCharset;
+
+    private Path file;
+    private CachedTextResource resource;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.file = Files.createTempFile("reguice", ".properties");
+        Files.write(this.file, "threadCount=4\ndataFolder=data/\n".getBytes(
+                StandardCharsets.UTF_8));
+
+        final CachingStrategy cachingStrategy = "changing".equals(this.strategy)
+                ? new TimestampCacheStrategy()
+                : ConstantCacheStrategy.getInstance();
+        final ResourceUtil util = new ResourceUtil();
+        this.resource = new CachedTextResource(
+                new NioResource(util, this.file, StandardCharsets.UTF_8),
+                cachingStrategy, util,
+                this.knownCharset ? StandardCharsets.UTF_8 : null, false);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    private String read() throws IOException {
+        try (Reader reader = this.resource.openStream()) {
+            return CharStreams.toString(reader);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String openStream1() throws IOException {
+        return read();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String openStream4() throws IOException {
+        return read();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String openStreamMax() throws IOException {
+        return read();
+    }
+}
@@ -0,0 +1,53 @@
+package de.skuzzle.inject.conf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures converting strings to the return types of mapped getters.
+ *
+ * @author Simon Taddiken
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertersBenchmark {
+
+    // fields prevent constant folding of the inputs
+    public String intValue = "8080";
+    public String doubleValue = "0.5";
+    public String booleanValue = "true";
+    public String enumValue = "SECONDS";
+
+    @Benchmark
+    public int parsePrimitive() {
+        return Converters.parseString(Integer.TYPE, this.intValue);
+    }
+
+    @Benchmark
+    public Double parseBoxed() {
+        return Converters.parseString(Double.class, this.doubleValue);
+    }
+
+    @Benchmark
+    public boolean parseBoolean() {
+        return Converters.parseString(Boolean.TYPE, this.booleanValue);
+    }
+
+    @Benchmark
+    public TimeUnit parseEnum() {
+        return Converters.parseString(TimeUnit.class, this.enumValue);
+    }
+}
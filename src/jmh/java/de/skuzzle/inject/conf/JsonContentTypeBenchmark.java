@@ -0,0 +1,81 @@
+package de.skuzzle.inject.conf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.GsonBuilder;
+
+import de.skuzzle.inject.conf.JsonProxyBenchmark.Config;
+
+/**
+ * Measures creating objects from json documents of different sizes. Only a few
+ * members of the documents are mapped to the created objects.
+ *
+ * @author Simon Taddiken
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonContentTypeBenchmark {
+
+    public static class Pojo {
+        String name;
+        int port;
+    }
+
+    // number of members which are not mapped
+    @Param({ "10", "10000" })
+    public int unmappedMembers;
+
+    @Param({ "false", "true" })
+    public boolean lazy;
+
+    private JsonContentType contentType;
+    private TextResource resource;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder b = new StringBuilder("{");
+        for (int i = 0; i < this.unmappedMembers; ++i) {
+            b.append("\"member").append(i).append("\":{\"value\":[")
+                    .append(i).append(",\"text\"]},");
+        }
+        b.append("\"name\":\"reguice\",\"port\":8080,\"nested\":{\"ratio\":0.5}}");
+
+        this.resource = new StringTextResource(b.toString(), new ResourceUtil());
+        this.contentType = new JsonContentType(new BeanUtil(), new GsonBuilder(),
+                this.lazy);
+        this.contentType.prepare(Config.class);
+        this.contentType.prepare(Pojo.class);
+        this.contentType.warmUp();
+    }
+
+    @Benchmark
+    public Config createInterface() {
+        return this.contentType.createInstance(Config.class, this.resource);
+    }
+
+    @Benchmark
+    public String createInterfaceAndGet() {
+        return this.contentType.createInstance(Config.class, this.resource).getName();
+    }
+
+    @Benchmark
+    public Pojo createPojo() {
+        return this.contentType.createInstance(Pojo.class, this.resource);
+    }
+}
@@ -0,0 +1,74 @@
+package de.skuzzle.inject.conf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Measures calling the getters of an interface which is mapped to a json document.
+ *
+ * @author Simon Taddiken
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonProxyBenchmark {
+
+    public interface Config {
+        String getName();
+
+        int getPort();
+
+        Nested getNested();
+    }
+
+    public interface Nested {
+        double getRatio();
+    }
+
+    static final String DOCUMENT = "{\"name\":\"reguice\",\"port\":8080,"
+            + "\"nested\":{\"ratio\":0.5}}";
+
+    @Param({ "false", "true" })
+    public boolean lazy;
+
+    private Config config;
+
+    @Setup
+    public void setUp() {
+        final TextResource resource = new StringTextResource(DOCUMENT,
+                new ResourceUtil());
+        this.config = new JsonContentType(new BeanUtil(), new GsonBuilder(), this.lazy)
+                .createInstance(Config.class, resource);
+    }
+
+    @Benchmark
+    public String getString() {
+        return this.config.getName();
+    }
+
+    @Benchmark
+    public int getInt() {
+        return this.config.getPort();
+    }
+
+    @Benchmark
+    public double getNested() {
+        return this.config.getNested().getRatio();
+    }
+}
@@ -0,0 +1,59 @@
+package de.skuzzle.inject.conf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures calling the getters of an interface which is mapped to properties.
+ *
+ * @author Simon Taddiken
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertiesProxyBenchmark {
+
+    public interface Settings {
+        int getThreadCount();
+
+        String getDataFolder();
+    }
+
+    private Settings settings;
+
+    @Setup
+    public void setUp() {
+        final TextResource resource = new StringTextResource(
+                "threadCount=4\ndataFolder=data/", new ResourceUtil());
+        this.settings = new PropertiesContentType(new BeanUtil())
+                .createInstance(Settings.class, resource);
+    }
+
+    @Benchmark
+    public int getInt() {
+        return this.settings.getThreadCount();
+    }
+
+    @Benchmark
+    public String getString() {
+        return this.settings.getDataFolder();
+    }
+
+    @Benchmark
+    public int objectMethod() {
+        return this.settings.hashCode();
+    }
+}
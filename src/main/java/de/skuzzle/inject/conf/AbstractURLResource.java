@@ -4,14 +4,31 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 abstract class AbstractURLResource implements TextResource {
 
+    private static final class Timestamp {
+        private final URL url;
+        private final long lastModified;
+
+        private Timestamp(URL url, long lastModified) {
+            this.url = url;
+            this.lastModified = lastModified;
+        }
+    }
+
     private final ResourceUtil util;
     private final Charset charset;
+    private final ReaderSession session = new ReaderSession(this);
+    // modification time of the last resolved url if its content can never change
+    private volatile Timestamp immutableTimestamp;
 
     AbstractURLResource(ResourceUtil util, Charset charset) {
         this.util = util;
@@ -20,32 +37,107 @@ abstract class AbstractURLResource implements TextResource {
 
     protected abstract URL getURL() throws IOException;
 
+    /**
+     * Called when accessing the URL returned by {@link #getURL()} failed.
+     * Implementations which cache the resolved URL should resolve it again on the
+     * next call.
+     */
+    protected void invalidateURL() {
+        // nothing cached by default
+    }
+
+    /**
+     * Whether the content of the given URL, which has been returned by
+     * {@link #getURL()}, can never change. The modification date of immutable
+     * URLs is only determined once. By default, every URL is considered mutable.
+     *
+     * @param url The URL.
+     * @return Whether the URL's content can never change.
+     */
+    protected boolean isImmutable(URL url) {
+        return false;
+    }
+
     @Override
     public final int read(CharBuffer cb) throws IOException {
-        return this.util.readFromSource(this, cb);
+        return this.session.read(cb);
     }
 
     @Override
     public final InputStream openBinaryStream() throws IOException {
-        return this.util.newInputStream(getURL());
+        final URL url = getURL();
+        try {
+            return this.util.newInputStream(url);
+        } catch (final IOException e) {
+            invalidateURL();
+            throw e;
+        }
     }
 
     @Override
-    public long writeTo(OutputStream out) throws IOException {
+    public final long writeTo(OutputStream out) throws IOException {
         return this.util.writeFromSource(this, out);
     }
 
+    @Override
+    public final long writeTo(WritableByteChannel channel) throws IOException {
+        final Path path = toPath(getURL());
+        if (path != null) {
+            try {
+                return this.util.transferFrom(path, channel);
+            } catch (final IOException e) {
+                invalidateURL();
+                throw e;
+            }
+        }
+        return this.util.writeFromSource(this, channel);
+    }
+
+    // null if the url does not denote a file
+    private static Path toPath(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (final URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     @Override
     public final Reader openStream() throws IOException {
         if (this.charset == null) {
-            return this.util.newReader(getURL());
+            final URL url = getURL();
+            try {
+                return this.util.newReader(url);
+            } catch (final IOException e) {
+                invalidateURL();
+                throw e;
+            }
         }
         return this.util.newReader(openBinaryStream(), this.charset);
     }
 
     @Override
     public final long getLastModifiedTime() throws IOException {
-        return this.util.getLastModifiedTime(getURL());
+        final URL url = getURL();
+        final Timestamp cached = this.immutableTimestamp;
+        if (cached != null && cached.url == url) {
+            return cached.lastModified;
+        }
+
+        final long lastModified;
+        try {
+            lastModified = this.util.getLastModifiedTime(url);
+        } catch (final IOException e) {
+            invalidateURL();
+            throw e;
+        }
+        if (isImmutable(url)) {
+            this.immutableTimestamp = new Timestamp(url, lastModified);
+        }
+        return lastModified;
     }
 
 }
@@ -0,0 +1,58 @@
+package de.skuzzle.inject.conf;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Non blocking view of a {@link TextResource}. All reading and parsing is performed
+ * by an executor which is specified when the view is created, so that the calling
+ * thread is never blocked by IO. IO errors complete the returned stages
+ * exceptionally with an {@link java.io.UncheckedIOException}.
+ *
+ * @author Simon Taddiken
+ * @since 0.4.0
+ */
+public interface AsyncTextResource {
+
+    /**
+     * Creates a non blocking view of the given resource.
+     *
+     * @param resource The resource to read from.
+     * @param executor The executor which performs reading and parsing.
+     * @return The non blocking view.
+     */
+    static AsyncTextResource of(TextResource resource, Executor executor) {
+        return new AsyncTextResourceImpl(resource, executor);
+    }
+
+    /**
+     * Gets the resource which is read by this view.
+     *
+     * @return The resource.
+     */
+    TextResource getResource();
+
+    /**
+     * Reads the whole text content of the resource.
+     *
+     * @return A stage which is completed with the text.
+     */
+    CompletionStage<String> readText();
+
+    /**
+     * Reads the whole binary content of the resource.
+     *
+     * @return A stage which is completed with the bytes.
+     */
+    CompletionStage<byte[]> readBytes();
+
+    /**
+     * Creates an object from the resource using the given content type.
+     *
+     * @param <T> The type of the object.
+     * @param contentType The content type.
+     * @param type The type of the object.
+     * @return A stage which is completed with the created object.
+     */
+    <T> CompletionStage<T> read(TextContentType contentType, Class<T> type);
+}
@@ -0,0 +1,62 @@
+package de.skuzzle.inject.conf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+
+final class AsyncTextResourceImpl implements AsyncTextResource {
+
+    private final TextResource resource;
+    private final Executor executor;
+
+    AsyncTextResourceImpl(TextResource resource, Executor executor) {
+        checkArgument(resource != null, "resource is null");
+        checkArgument(executor != null, "executor is null");
+        this.resource = resource;
+        this.executor = executor;
+    }
+
+    @Override
+    public TextResource getResource() {
+        return this.resource;
+    }
+
+    @Override
+    public CompletionStage<String> readText() {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Reader reader = this.resource.openStream()) {
+                return CharStreams.toString(reader);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, this.executor);
+    }
+
+    @Override
+    public CompletionStage<byte[]> readBytes() {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream in = this.resource.openBinaryStream()) {
+                return ByteStreams.toByteArray(in);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, this.executor);
+    }
+
+    @Override
+    public <T> CompletionStage<T> read(TextContentType contentType, Class<T> type) {
+        checkArgument(contentType != null, "contentType is null");
+        checkArgument(type != null, "type is null");
+        return CompletableFuture.supplyAsync(
+                () -> contentType.createInstance(type, this.resource), this.executor);
+    }
+}
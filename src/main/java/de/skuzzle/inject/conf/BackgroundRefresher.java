@@ -0,0 +1,109 @@
+package de.skuzzle.inject.conf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically refreshes cached resources using a single background thread. The
+ * delay between two refreshes varies randomly by up to ten percent of the interval
+ * so that resources which have been registered at the same time do not refresh at
+ * the same time. If refreshing a resource fails, its previous content is kept and
+ * the delay until the next attempt is doubled up to 16 times the interval.
+ * Resources are only weakly referenced, so refreshing silently stops once they are
+ * no longer used.
+ *
+ * @author Simon Taddiken
+ */
+class BackgroundRefresher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(
+            BackgroundRefresher.class);
+
+    private static final long MAX_BACKOFF = 16;
+    private static final double JITTER = 0.1;
+
+    private static final BackgroundRefresher INSTANCE = new BackgroundRefresher(
+            newExecutor());
+
+    private final ScheduledExecutorService executor;
+
+    BackgroundRefresher(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    static BackgroundRefresher getInstance() {
+        return INSTANCE;
+    }
+
+    private static ScheduledExecutorService newExecutor() {
+        return new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "reguice-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts refreshing the given resource in the given interval.
+     *
+     * @param resource The resource to refresh. Only a weak reference to it will be
+     *            retained.
+     * @param interval The interval.
+     * @param unit Unit of the interval.
+     */
+    void schedule(CachedTextResource resource, long interval, TimeUnit unit) {
+        checkArgument(resource != null, "resource is null");
+        checkArgument(interval > 0, "interval must be positive");
+        checkArgument(unit != null, "unit is null");
+        new RefreshTask(resource, unit.toNanos(interval)).scheduleNext();
+    }
+
+    private final class RefreshTask implements Runnable {
+        private final WeakReference<CachedTextResource> resource;
+        private final long interval;
+        // only accessed from the refresher thread
+        private int failures;
+
+        private RefreshTask(CachedTextResource resource, long interval) {
+            this.resource = new WeakReference<>(resource);
+            this.interval = interval;
+        }
+
+        private void scheduleNext() {
+            final long backoff = Math.min(1L << Math.min(this.failures, 30),
+                    MAX_BACKOFF);
+            final long delay = this.interval * backoff;
+            final double jitter = ThreadLocalRandom.current().nextDouble(-JITTER,
+                    JITTER);
+            BackgroundRefresher.this.executor.schedule(this,
+                    delay + (long) (delay * jitter), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void run() {
+            final CachedTextResource target = this.resource.get();
+            if (target == null) {
+                LOG.debug("Stopped refreshing unused resource");
+                return;
+            }
+
+            try {
+                target.refresh();
+                this.failures = 0;
+            } catch (final Exception e) {
+                ++this.failures;
+                LOG.warn("Refreshing resource failed {} time(s) in a row",
+                        this.failures, e);
+            }
+            scheduleNext();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package de.skuzzle.inject.conf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the getter methods of an interface to which a resource is bound. Every
+ * getter is assigned a fixed slot and its property name is determined once, so
+ * that dispatching a call on a proxy of the interface does not require any string
+ * operations.
+ *
+ * @author Simon Taddiken
+ */
+final class BeanInterface {
+
+    private final Class<?> type;
+    private final BeanUtil beanUtil;
+    private final Method[] getters;
+    private final String[] propertyNames;
+    private final Map<Method, Integer> slots;
+    private final Map<String, Integer> propertySlots;
+
+    BeanInterface(Class<?> type, BeanUtil beanUtil) {
+        checkArgument(type.isInterface(), "type must be an interface");
+        final List<Method> methods = new ArrayList<>();
+        for (final Method method : type.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())) {
+                methods.add(method);
+            }
+        }
+
+        this.type = type;
+        this.beanUtil = beanUtil;
+        this.getters = methods.toArray(new Method[methods.size()]);
+        this.propertyNames = new String[this.getters.length];
+        this.slots = new HashMap<>(this.getters.length * 2);
+        this.propertySlots = new HashMap<>(this.getters.length * 2);
+        for (int i = 0; i < this.getters.length; ++i) {
+            this.propertyNames[i] = beanUtil.getPropertyName(this.getters[i].getName());
+            this.slots.put(this.getters[i], i);
+            this.propertySlots.putIfAbsent(this.propertyNames[i], i);
+        }
+    }
+
+    /**
+     * The described interface.
+     *
+     * @return The interface.
+     */
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    /**
+     * The number of slots, which is the number of non-static methods of the
+     * interface.
+     *
+     * @return The number of slots.
+     */
+    public int size() {
+        return this.getters.length;
+    }
+
+    /**
+     * Gets the slot of the given method.
+     *
+     * @param method The method.
+     * @return The slot or <code>-1</code> if the method is not a method of the
+     *         described interface (like for example {@link Object#toString()}).
+     */
+    public int getSlot(Method method) {
+        final Integer slot = this.slots.get(method);
+        return slot == null
+                ? -1
+                : slot;
+    }
+
+    /**
+     * Gets the slot of a method which accesses the given property. If multiple
+     * methods access the same property, the slot of the first one is returned.
+     *
+     * @param propertyName The name of the property.
+     * @return The slot or <code>-1</code> if no method accesses the property.
+     */
+    public int getSlot(String propertyName) {
+        final Integer slot = this.propertySlots.get(propertyName);
+        return slot == null
+                ? -1
+                : slot;
+    }
+
+    /**
+     * Handles calls to methods declared by {@link Object} on a proxy of the
+     * described interface. Proxies are only equal to themselves.
+     *
+     * @param proxy The proxy on which the method has been called.
+     * @param method The called method.
+     * @param args The arguments.
+     * @return The result of the call.
+     */
+    public Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+        case "equals":
+            return proxy == args[0];
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "toString":
+            return String.format("%s@%08x", this.type.getName(),
+                    System.identityHashCode(proxy));
+        default:
+            throw new UnsupportedOperationException(String.format(
+                    "Method '%s' is not supported", method));
+        }
+    }
+
+    /**
+     * Gets the method in the given slot.
+     *
+     * @param slot The slot.
+     * @return The method.
+     */
+    public Method getGetter(int slot) {
+        return this.getters[slot];
+    }
+
+    /**
+     * Gets the name of the property that is accessed by the given method.
+     *
+     * @param method The method.
+     * @return The property name.
+     */
+    public String getPropertyName(Method method) {
+        final int slot = getSlot(method);
+        return slot < 0
+                ? this.beanUtil.getPropertyName(method.getName())
+                : this.propertyNames[slot];
+    }
+
+    /**
+     * Gets the name of the property that is accessed by the method in the given
+     * slot.
+     *
+     * @param slot The slot.
+     * @return The property name.
+     */
+    public String getPropertyName(int slot) {
+        return this.propertyNames[slot];
+    }
+}
@@ -16,6 +16,8 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import com.google.inject.Injector;
+
 class BeanUtil {
 
     private static final Map<Class<?>, Supplier<?>> COLLECTION_CONSTRUCTORS;
@@ -41,8 +43,32 @@ class BeanUtil {
         COLLECTION_CONSTRUCTORS.put(Queue.class, ArrayDeque::new);
     }
 
+    private final Converters converters = new Converters();
+
+    private final ClassValue<BeanInterface> beanInterfaces = new ClassValue<BeanInterface>() {
+
+        @Override
+        protected BeanInterface computeValue(Class<?> type) {
+            return new BeanInterface(type, BeanUtil.this);
+        }
+    };
+
+    public BeanInterface getBeanInterface(Class<?> type) {
+        return this.beanInterfaces.get(type);
+    }
+
     public Object coerceType(String value, Class<?> targetType) {
-        return Converters.parseString(targetType, value);
+        return this.converters.parse(targetType, value);
+    }
+
+    /**
+     * Makes the {@link Converter converters} which are bound in the given
+     * injector available to {@link #coerceType(String, Class)}.
+     *
+     * @param injector The injector.
+     */
+    public void contributeConverters(Injector injector) {
+        this.converters.contribute(injector);
     }
 
     public Object coerceNumber(Number number, Class<?> targetType) {
@@ -3,6 +3,8 @@ package de.skuzzle.inject.conf;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * Represents a resource for which a binary stream can be obtained.
@@ -38,6 +40,29 @@ public interface BinaryResource {
      */
     long writeTo(OutputStream out) throws IOException;
 
+    /**
+     * Writes the binary content of this resource to the specified channel.
+     * Implementations should override this method if they can transfer their
+     * content more efficiently than by copying it through an intermediate stream,
+     * for example by using {@link java.nio.channels.FileChannel#transferTo(long,
+     * long, WritableByteChannel) FileChannel.transferTo} for file based resources.
+     * The channel will not be closed by this method.
+     * <p>
+     * Channels which support a non-blocking mode must be in blocking mode, because
+     * the whole content is written before this method returns.
+     * </p>
+     *
+     * @param channel The target channel.
+     * @return The number of bytes that have been copied.
+     * @throws IOException If an IO error occurs.
+     * @throws IllegalArgumentException If the channel is a
+     *             {@link java.nio.channels.SelectableChannel} in non-blocking mode.
+     * @since 0.4.0
+     */
+    default long writeTo(WritableByteChannel channel) throws IOException {
+        return writeTo(Channels.newOutputStream(channel));
+    }
+
     /**
      * Gets the modification date of this resource. Depending on the actual
      * implementation this method will return a best effort value for the last
@@ -0,0 +1,174 @@
+package de.skuzzle.inject.conf;
+
+import java.io.IOException;
+
+import com.google.inject.Inject;
+import com.google.inject.Key;
+
+/**
+ * Reports the events of a single binding to the {@link ResourceMetrics} which is
+ * bound in the injector, if any, and to the Java Flight Recorder, if available.
+ * Events concerning the buffered content of a cached resource are measured by the
+ * resource's {@link ContentMetrics}, which reports them to every binding that
+ * shares the resource. Loads of an uncached resource are measured by the binding
+ * itself through a {@link MeteredTextResource}.
+ * <p>
+ * Events which are measured must be started first. Time is only measured while a
+ * {@link ResourceMetrics} is bound and flight recorder events are only created while
+ * they are enabled in a running recording. Otherwise, starting an event neither
+ * reads the clock nor allocates.
+ * </p>
+ *
+ * @author Simon Taddiken
+ */
+final class BindingMetrics {
+
+    private static final ResourceMetrics NO_METRICS = new ResourceMetrics() {};
+
+    static final BindingMetrics NONE = new BindingMetrics(null, null, false);
+
+    private final Key<?> key;
+    private final String location;
+    // null if JFR is not available
+    private final FlightRecorderMetrics recorder;
+    private volatile ResourceMetrics metrics;
+
+    BindingMetrics(Key<?> key, String location) {
+        this(key, location, true);
+    }
+
+    private BindingMetrics(Key<?> key, String location, boolean record) {
+        this.key = key;
+        this.location = location;
+        this.recorder = record
+                ? FlightRecording.newRecorder(location)
+                : null;
+        this.metrics = NO_METRICS;
+    }
+
+    @Inject(optional = true)
+    void setMetrics(ResourceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    Key<?> getKey() {
+        return this.key;
+    }
+
+    String getLocation() {
+        return this.location;
+    }
+
+    /**
+     * Whether a {@link ResourceMetrics} is bound for this binding.
+     *
+     * @return Whether durations must be measured.
+     */
+    boolean isListening() {
+        return this.metrics != NO_METRICS;
+    }
+
+    Measurement startCreation() {
+        final Object event = this.recorder == null
+                ? null
+                : this.recorder.beginParse();
+        final boolean timed = isListening();
+        if (!timed && event == null) {
+            return null;
+        }
+        return new Measurement(timed, event);
+    }
+
+    /**
+     * Starts measuring an event which is not recorded by the flight recorder.
+     *
+     * @return The measurement which must be passed to the event or null if nothing
+     *         is measured.
+     */
+    Measurement start() {
+        return isListening()
+                ? new Measurement(true, null)
+                : null;
+    }
+
+    Measurement startLoad() {
+        final Object event = this.recorder == null
+                ? null
+                : this.recorder.beginLoad();
+        final boolean timed = isListening();
+        if (!timed && event == null) {
+            return null;
+        }
+        return new Measurement(timed, event);
+    }
+
+    void resourceOpened(Measurement measurement) {
+        if (measurement != null && measurement.isTimed()) {
+            resourceOpened(measurement.elapsedNanos());
+        }
+    }
+
+    void resourceRead(long size, Measurement measurement) {
+        if (measurement == null) {
+            return;
+        }
+        if (measurement.isTimed()) {
+            resourceRead(size, measurement.elapsedNanos());
+        }
+        if (measurement.getEvent() != null) {
+            this.recorder.loaded(measurement.getEvent(), this.key, size);
+        }
+    }
+
+    void resourceOpened(long nanos) {
+        this.metrics.resourceOpened(this.key, nanos);
+    }
+
+    void resourceRead(long size, long nanos) {
+        this.metrics.resourceRead(this.key, size, nanos);
+    }
+
+    void textDecoded(long chars, long nanos) {
+        this.metrics.textDecoded(this.key, chars, nanos);
+    }
+
+    void freshnessChecked(boolean stale, long nanos) {
+        this.metrics.freshnessChecked(this.key, stale, nanos);
+    }
+
+    void contentRefreshed(boolean changed, long nanos) {
+        this.metrics.contentRefreshed(this.key, changed, nanos);
+    }
+
+    void cacheHit() {
+        this.metrics.cacheHit(this.key);
+    }
+
+    void cacheMiss() {
+        this.metrics.cacheMiss(this.key);
+    }
+
+    void refreshFailed(IOException error) {
+        this.metrics.refreshFailed(this.key, error);
+    }
+
+    void instanceCreated(Measurement measurement) {
+        if (measurement == null) {
+            return;
+        }
+        if (measurement.isTimed()) {
+            this.metrics.instanceCreated(this.key, measurement.elapsedNanos());
+        }
+        if (measurement.getEvent() != null) {
+            this.recorder.parsed(measurement.getEvent(), this.key);
+        }
+    }
+
+    void instanceReused() {
+        this.metrics.instanceReused(this.key);
+    }
+
+    void creationFailed(RuntimeException error) {
+        this.metrics.creationFailed(this.key, error);
+    }
+}
@@ -0,0 +1,50 @@
+package de.skuzzle.inject.conf;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * InputStream which reads from the remaining content of a {@link ByteBuffer}. The
+ * buffer's position is advanced while reading.
+ *
+ * @author Simon Taddiken
+ */
+final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+        return this.buffer.hasRemaining()
+                ? this.buffer.get() & 0xFF
+                : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        } else if (!this.buffer.hasRemaining()) {
+            return -1;
+        }
+        final int count = Math.min(len, this.buffer.remaining());
+        this.buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        final int count = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+        this.buffer.position(this.buffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return this.buffer.remaining();
+    }
+}
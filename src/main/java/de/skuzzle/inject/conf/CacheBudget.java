@@ -0,0 +1,149 @@
+package de.skuzzle.inject.conf;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import de.skuzzle.inject.conf.CachedTextResource.Snapshot;
+
+/**
+ * Keeps the content of all cached resources of an injector within a budget of
+ * bytes. The budget is bound just in time as singleton, unless it has been bound
+ * explicitly using {@link Resources#setCacheBudget(com.google.inject.Binder, long)}.
+ * Cached resources report every access and every newly buffered content. Once the
+ * budget is exceeded, the content of the least recently used resources is evicted.
+ * Resources are only weakly referenced.
+ * <p>
+ * Reading buffered content must not contend on a lock. Thus, if the budget is
+ * unlimited, accesses are only counted and the content is only tracked when it is
+ * buffered. Otherwise, only a sample of the accesses updates the recency of a
+ * resource, so least recently used is approximated by resources which are read
+ * rarely.
+ * </p>
+ *
+ * @author Simon Taddiken
+ */
+@Singleton
+class CacheBudget implements CacheStatistics {
+
+    // one out of 8 accesses updates the recency of the accessed resource
+    private static final int RECENCY_SAMPLE_MASK = 7;
+
+    // weight of each resource is the size of its buffered content
+    private final Cache<CachedTextResource, Snapshot> contents;
+    private final long budget;
+    private final boolean unlimited;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    @Inject
+    CacheBudget() {
+        this(Long.getLong(BUDGET_PROPERTY, Long.MAX_VALUE));
+    }
+
+    CacheBudget(long budget) {
+        this.budget = budget;
+        this.unlimited = budget == Long.MAX_VALUE;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        if (this.unlimited) {
+            // nothing will ever be evicted, content is only tracked for statistics
+            this.contents = CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .build();
+        } else {
+            this.contents = CacheBuilder.newBuilder()
+                    .weakKeys()
+                    // a single segment so the budget applies to all resources at once
+                    .concurrencyLevel(1)
+                    .maximumWeight(budget)
+                    .<CachedTextResource, Snapshot> weigher((resource, content) ->
+                            content.size())
+                    .removalListener(this::onRemoval)
+                    .build();
+        }
+    }
+
+    private void onRemoval(RemovalNotification<CachedTextResource, Snapshot> removal) {
+        final CachedTextResource resource = removal.getKey();
+        if (removal.getCause() == RemovalCause.SIZE && resource != null) {
+            if (resource.evict(removal.getValue())) {
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Records an access to buffered content of the given resource.
+     *
+     * @param resource The resource.
+     */
+    void hit(CachedTextResource resource) {
+        this.hits.increment();
+        if (!this.unlimited
+                && (ThreadLocalRandom.current().nextInt() & RECENCY_SAMPLE_MASK) == 0) {
+            // marks the resource as recently used
+            this.contents.getIfPresent(resource);
+        }
+    }
+
+    /**
+     * Records that the given resource has buffered new content. This may evict the
+     * content of other resources or even the given content.
+     *
+     * @param resource The resource.
+     * @param content The content which has been buffered.
+     */
+    void buffered(CachedTextResource resource, Snapshot content) {
+        this.misses.increment();
+        this.contents.put(resource, content);
+    }
+
+    /**
+     * Updates the size of the content which is buffered by the given resource
+     * without recording an access.
+     *
+     * @param resource The resource.
+     * @param content Its current content.
+     */
+    void resized(CachedTextResource resource, Snapshot content) {
+        this.contents.put(resource, content);
+    }
+
+    @Override
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    @Override
+    public long getBufferedBytes() {
+        long sum = 0;
+        for (final Snapshot content : this.contents.asMap().values()) {
+            sum += content.size();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getBudget() {
+        return this.budget;
+    }
+}
@@ -0,0 +1,70 @@
+package de.skuzzle.inject.conf;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Statistics about the contents which are buffered by all cached resources of an
+ * injector. Cached resources of the same injector share a budget of bytes. If
+ * buffering a resource exceeds the budget, the contents of the least recently used
+ * resources are evicted and will transparently be read again on their next access.
+ * The budget can be set in bytes using
+ * {@link Resources#setCacheBudget(com.google.inject.Binder, long)}. Otherwise, it
+ * is taken from the system property {@value #BUDGET_PROPERTY} and is unlimited if
+ * the property is not set.
+ * <p>
+ * The statistics of an injector can be injected or obtained using
+ * {@link Resources#getCacheStatistics(com.google.inject.Injector)}.
+ * </p>
+ *
+ * @author Simon Taddiken
+ * @since 0.4.0
+ */
+@ImplementedBy(CacheBudget.class)
+public interface CacheStatistics {
+
+    /**
+     * Name of the system property which specifies the budget in bytes if it has not
+     * been set explicitly.
+     */
+    String BUDGET_PROPERTY = "reguice.cacheBudget";
+
+    /**
+     * Number of accesses to a cached resource which have been served from buffered
+     * content.
+     *
+     * @return The hit count.
+     */
+    long getHitCount();
+
+    /**
+     * Number of times a cached resource had to read its content because it has not
+     * been buffered yet, has been evicted or was outdated.
+     *
+     * @return The miss count.
+     */
+    long getMissCount();
+
+    /**
+     * Number of times the content of a resource has been evicted to stay within the
+     * budget.
+     *
+     * @return The eviction count.
+     */
+    long getEvictionCount();
+
+    /**
+     * The approximate amount of memory in bytes which is currently occupied by
+     * buffered content.
+     *
+     * @return The buffered bytes.
+     */
+    long getBufferedBytes();
+
+    /**
+     * The maximum amount of memory in bytes which may be occupied by buffered
+     * content.
+     *
+     * @return The budget.
+     */
+    long getBudget();
+}
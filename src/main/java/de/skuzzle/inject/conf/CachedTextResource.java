@@ -6,29 +6,227 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
 
+/**
+ * Buffers the contents of another resource. The buffered contents are held in an
+ * immutable snapshot, so reading them never blocks. Only a single thread at a time
+ * consults the caching strategy and refreshes the contents, while all other threads
+ * keep on reading the previous snapshot. Threads only block if they request content
+ * which has not been buffered yet.
+ * <p>
+ * The buffered contents of all cached resources of an injector are kept within
+ * its {@link CacheBudget}. Content which has been evicted is transparently read again on
+ * the next access. Only a fingerprint of evicted content is retained.
+ * </p>
+ * <p>
+ * Content which is read again is only regarded as changed if it differs from the
+ * previous content. Thus, re-deploying or touching a resource without modifying it
+ * does not change the {@link #getVersion() version} of the buffered content and
+ * objects which have been created from it do not need to be re-created.
+ * </p>
+ * <p>
+ * Strategies which implement {@link StalenessHint} are only consulted while they
+ * report that the content might be stale, so reading unchanged content never locks.
+ * Other strategies are consulted on every read. When only the
+ * {@link #getVersion() version} is requested, they are consulted at most once per
+ * {@link #CHECK_INTERVAL_NANOS check interval}.
+ * </p>
+ * <p>
+ * If inline refreshing is disabled, reading never consults the caching strategy.
+ * Buffered contents are then only refreshed by explicitly calling
+ * {@link #refresh()}, for example from a {@link BackgroundRefresher}.
+ * </p>
+ * <p>
+ * If the charset of the wrapped resource is known, the resource is only read as
+ * binary and its text is decoded from the buffered bytes when it is first
+ * requested. In <em>compact</em> mode, the decoded text is not retained but decoded
+ * again for every reader. If the charset is not known, text and binary content are
+ * read and buffered separately.
+ * </p>
+ *
+ * @author Simon Taddiken
+ */
 class CachedTextResource implements TextResource {
 
+    /**
+     * Minimum time between two checks for changes through {@link #getVersion()},
+     * if the caching strategy can not tell cheaply whether content is stale.
+     */
+    static final long CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(null, null, 0, null, null);
+        private static final HashFunction FINGERPRINT = Hashing.murmur3_128();
+
+        // null if not yet buffered or evicted
+        private final byte[] bytes;
+        // null if not yet buffered, evicted or, if charset is known, not yet decoded
+        private volatile String text;
+        // incremented whenever buffered content is replaced by different content
+        private final long version;
+        // fingerprints of evicted content, null if there is none
+        private final HashCode textFingerprint;
+        private final HashCode bytesFingerprint;
+
+        private Snapshot(String text, byte[] bytes, long version,
+                HashCode textFingerprint, HashCode bytesFingerprint) {
+            this.text = text;
+            this.bytes = bytes;
+            this.version = version;
+            this.textFingerprint = textFingerprint;
+            this.bytesFingerprint = bytesFingerprint;
+        }
+
+        boolean textEvicted() {
+            return this.textFingerprint != null;
+        }
+
+        boolean bytesEvicted() {
+            return this.bytesFingerprint != null;
+        }
+
+        boolean isSameText(String other) {
+            if (this.text != null) {
+                return this.text.equals(other);
+            }
+            return this.textFingerprint != null && this.textFingerprint.equals(
+                    FINGERPRINT.hashUnencodedChars(other));
+        }
+
+        boolean isSameBytes(byte[] other) {
+            if (this.bytes != null) {
+                return Arrays.equals(this.bytes, other);
+            }
+            return this.bytesFingerprint != null && this.bytesFingerprint.equals(
+                    FINGERPRINT.hashBytes(other));
+        }
+
+        Snapshot withText(String text, boolean changed) {
+            final long newVersion = changed
+                    ? this.version + 1
+                    : this.version;
+            return new Snapshot(text, this.bytes, newVersion, null,
+                    this.bytesFingerprint);
+        }
+
+        Snapshot withBytes(byte[] bytes, boolean textDerived, boolean changed) {
+            final long newVersion = changed
+                    ? this.version + 1
+                    : this.version;
+            // text which has been decoded from the old bytes is outdated
+            if (textDerived) {
+                return new Snapshot(null, bytes, newVersion, null, null);
+            }
+            return new Snapshot(this.text, bytes, newVersion, this.textFingerprint,
+                    null);
+        }
+
+        Snapshot evicted() {
+            final HashCode newTextFingerprint = this.text == null
+                    ? this.textFingerprint
+                    : FINGERPRINT.hashUnencodedChars(this.text);
+            final HashCode newBytesFingerprint = this.bytes == null
+                    ? this.bytesFingerprint
+                    : FINGERPRINT.hashBytes(this.bytes);
+            return new Snapshot(null, null, this.version, newTextFingerprint,
+                    newBytesFingerprint);
+        }
+
+        /**
+         * Approximate amount of memory occupied by the buffered content.
+         *
+         * @return The size in bytes.
+         */
+        int size() {
+            final long textSize = this.text == null
+                    ? 0
+                    : 2L * this.text.length();
+            final long bytesSize = this.bytes == null
+                    ? 0
+                    : this.bytes.length;
+            return (int) Math.min(Integer.MAX_VALUE, textSize + bytesSize);
+        }
+    }
+
     private final TextResource wrapped;
-    private String bufferedString;
-    private byte[] bufferedBytes;
     private final CachingStrategy cacheStrategy;
     private final ResourceUtil resourceUtil;
+    // null if text must be read separately from the wrapped resource
+    private final Charset charset;
+    private final boolean compact;
+    // whether reading checks for stale content
+    private final boolean inlineRefresh;
+    private final CacheBudget budget;
+    // guards refreshing the snapshot
+    private final Lock refreshLock;
+    // only replaced while holding the refresh lock, except for eviction
+    private final AtomicReference<Snapshot> snapshot;
+    private final ReaderSession session = new ReaderSession(this);
+    private final ContentMetrics metrics = new ContentMetrics();
+    // null if the strategy gives no hint about stale content
+    private final StalenessHint hint;
+    // time at which getVersion() checks for changes again if there is no hint
+    private volatile long nextCheckNanos;
 
     CachedTextResource(TextResource wrapped, CachingStrategy strategy,
-            ResourceUtil resourceUtil) {
+            ResourceUtil resourceUtil, Charset charset, boolean compact) {
+        this(wrapped, strategy, resourceUtil, charset, compact, true);
+    }
+
+    CachedTextResource(TextResource wrapped, CachingStrategy strategy,
+            ResourceUtil resourceUtil, Charset charset, boolean compact,
+            boolean inlineRefresh) {
+        this(wrapped, strategy, resourceUtil, charset, compact, inlineRefresh,
+                new CacheBudget(Long.MAX_VALUE));
+    }
+
+    CachedTextResource(TextResource wrapped, CachingStrategy strategy,
+            ResourceUtil resourceUtil, Charset charset, boolean compact,
+            boolean inlineRefresh, CacheBudget budget) {
         this.wrapped = wrapped;
+        this.budget = budget;
+        this.inlineRefresh = inlineRefresh;
         this.cacheStrategy = strategy;
         this.resourceUtil = resourceUtil;
+        this.charset = charset;
+        this.compact = compact;
+        this.refreshLock = new ReentrantLock();
+        this.snapshot = new AtomicReference<>(Snapshot.EMPTY);
+        this.hint = strategy instanceof StalenessHint
+                ? (StalenessHint) strategy
+                : null;
+        this.nextCheckNanos = System.nanoTime();
+    }
+
+    /**
+     * Adds the metrics of a binding to which the events concerning the buffered
+     * content will be reported. A resource which is shared by multiple bindings
+     * reports its events to all of them.
+     *
+     * @param metrics The metrics.
+     */
+    void addMetrics(BindingMetrics metrics) {
+        this.metrics.add(metrics);
     }
 
     @Override
     public int read(CharBuffer cb) throws IOException {
-        return this.resourceUtil.readFromSource(this, cb);
+        return this.session.read(cb);
     }
 
     @Override
@@ -37,33 +235,258 @@ class CachedTextResource implements TextResource {
     }
 
     @Override
-    public final synchronized InputStream openBinaryStream() throws IOException {
-        if (this.bufferedBytes == null || rebufferBytes()) {
-            try (InputStream stream = this.wrapped.openBinaryStream()) {
-                this.bufferedBytes = ByteStreams.toByteArray(stream);
-                this.cacheStrategy.binaryCacheRefreshed(this, this.bufferedBytes);
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        return this.resourceUtil.write(ByteBuffer.wrap(getBytes().bytes), channel);
+    }
+
+    @Override
+    public final InputStream openBinaryStream() throws IOException {
+        return new ByteArrayInputStream(getBytes().bytes);
+    }
+
+    @Override
+    public final Reader openStream() throws IOException {
+        if (this.charset == null) {
+            return new StringReader(getText().text);
+        }
+
+        final Snapshot current = getBytes();
+        if (this.compact) {
+            return this.resourceUtil.newReader(
+                    new ByteArrayInputStream(current.bytes), this.charset);
+        }
+        String text = current.text;
+        if (text == null) {
+            // concurrent decoding is harmless as the result is always the same
+            final Measurement decoding = this.metrics.start();
+            text = new String(current.bytes, this.charset);
+            this.metrics.textDecoded(text.length(), decoding);
+            current.text = text;
+            if (this.snapshot.get() == current) {
+                this.budget.resized(this, current);
             }
         }
-        return new ByteArrayInputStream(this.bufferedBytes);
+        return new StringReader(text);
     }
 
-    @Override
-    public final synchronized Reader openStream() throws IOException {
-        if (this.bufferedString == null || rebufferChars()) {
-            try (Reader reader = this.wrapped.openStream()) {
-                this.bufferedString = CharStreams.toString(reader);
-                this.cacheStrategy.textCacheRefreshed(this, this.bufferedString);
+    private Snapshot getBytes() throws IOException {
+        Snapshot current = this.snapshot.get();
+        if (current.bytes == null) {
+            this.refreshLock.lock();
+            try {
+                current = this.snapshot.get();
+                if (current.bytes == null) {
+                    this.metrics.cacheMiss();
+                    current = bufferBytes(current);
+                }
+            } finally {
+                this.refreshLock.unlock();
+            }
+            return current;
+        }
+
+        this.budget.hit(this);
+        this.metrics.cacheHit();
+        if (mightBeStale(current) && this.refreshLock.tryLock()) {
+            try {
+                current = refreshStaleContent();
+            } finally {
+                this.refreshLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private Snapshot getText() throws IOException {
+        Snapshot current = this.snapshot.get();
+        if (current.text == null) {
+            this.refreshLock.lock();
+            try {
+                current = this.snapshot.get();
+                if (current.text == null) {
+                    this.metrics.cacheMiss();
+                    current = bufferText(current);
+                }
+            } finally {
+                this.refreshLock.unlock();
+            }
+            return current;
+        }
+
+        this.budget.hit(this);
+        this.metrics.cacheHit();
+        if (mightBeStale(current) && this.refreshLock.tryLock()) {
+            try {
+                current = refreshStaleContent();
+            } finally {
+                this.refreshLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Consults the caching strategy for all contents that are currently buffered or
+     * have been evicted and refreshes those that are outdated. The strategy is only
+     * consulted if it {@link StalenessHint hints} at stale content or, if it gives
+     * no hints, at most once per {@link #CHECK_INTERVAL_NANOS check interval}.
+     * Otherwise, and if another thread is currently refreshing the contents, this
+     * method does not block but returns the version of the previous contents. The
+     * returned token changes whenever buffered content has been replaced, so objects
+     * that have been created from this resource are still up to date as long as the
+     * token stays the same.
+     *
+     * @return The current version of the buffered content.
+     * @throws IOException If checking the caching strategy or refreshing the
+     *             contents fails.
+     */
+    final long getVersion() throws IOException {
+        final Snapshot current = this.snapshot.get();
+        if (this.hint == null
+                ? this.inlineRefresh && System.nanoTime() - this.nextCheckNanos >= 0
+                : mightBeStale(current)) {
+            if (this.refreshLock.tryLock()) {
+                try {
+                    return refreshStaleContent().version;
+                } finally {
+                    this.refreshLock.unlock();
+                }
+            }
+        }
+        return current.version;
+    }
+
+    // whether reading the given content must consult the caching strategy
+    private boolean mightBeStale(Snapshot current) {
+        if (!this.inlineRefresh) {
+            return false;
+        } else if (this.hint == null) {
+            return true;
+        }
+        return this.charset == null
+                && (current.text != null || current.textEvicted())
+                && this.hint.textMightBeStale()
+                || (current.bytes != null || current.bytesEvicted())
+                && this.hint.binaryMightBeStale();
+    }
+
+    /**
+     * Consults the caching strategy for all contents that are currently buffered or
+     * have been evicted and refreshes those that are outdated. Blocks while another
+     * thread is refreshing the contents.
+     *
+     * @throws IOException If checking the caching strategy or refreshing the
+     *             contents fails.
+     */
+    final void refresh() throws IOException {
+        this.refreshLock.lock();
+        try {
+            refreshStaleContent();
+        } finally {
+            this.refreshLock.unlock();
+        }
+    }
+
+    // must only be called while holding the refresh lock
+    private Snapshot refreshStaleContent() throws IOException {
+        this.nextCheckNanos = System.nanoTime() + CHECK_INTERVAL_NANOS;
+        Snapshot current = this.snapshot.get();
+        try {
+            // evicted content is checked as well, otherwise the version of evicted
+            // content would never change. If it is stale, it is read again and
+            // compared to the fingerprint of the evicted content.
+            // text is only buffered separately if the charset is unknown
+            if (this.charset == null
+                    && (current.text != null || current.textEvicted())
+                    && rebufferChars()) {
+                final Measurement refreshing = this.metrics.startRefresh();
+                final Snapshot previous = current;
+                current = bufferText(current);
+                this.metrics.contentRefreshed(current.version != previous.version,
+                        refreshing);
+            }
+            if ((current.bytes != null || current.bytesEvicted()) && rebufferBytes()) {
+                final Measurement refreshing = this.metrics.startRefresh();
+                final Snapshot previous = current;
+                current = bufferBytes(current);
+                this.metrics.contentRefreshed(current.version != previous.version,
+                        refreshing);
             }
+            return current;
+        } catch (final IOException e) {
+            this.metrics.refreshFailed(e);
+            throw e;
         }
-        return new StringReader(this.bufferedString);
+    }
+
+    // must only be called while holding the refresh lock
+    private Snapshot bufferText(Snapshot current) throws IOException {
+        final Measurement opening = this.metrics.start();
+        try (Reader reader = this.wrapped.openStream()) {
+            this.metrics.resourceOpened(opening);
+            final Measurement loading = this.metrics.startLoad();
+            final String text = CharStreams.toString(reader);
+            this.metrics.resourceRead(text.length(), loading);
+            // content which has been read for the first time does not count as change
+            final boolean replacing = current.text != null || current.textEvicted();
+            final Snapshot result = current.withText(text,
+                    replacing && !current.isSameText(text));
+            this.snapshot.set(result);
+            this.cacheStrategy.textCacheRefreshed(this, text);
+            this.budget.buffered(this, result);
+            return result;
+        }
+    }
+
+    // must only be called while holding the refresh lock
+    private Snapshot bufferBytes(Snapshot current) throws IOException {
+        final Measurement opening = this.metrics.start();
+        try (InputStream stream = this.wrapped.openBinaryStream()) {
+            this.metrics.resourceOpened(opening);
+            final Measurement loading = this.metrics.startLoad();
+            final byte[] bytes = ByteStreams.toByteArray(stream);
+            this.metrics.resourceRead(bytes.length, loading);
+            final Snapshot result;
+            if (current.bytes != null && current.isSameBytes(bytes)) {
+                // keep text which might have been decoded from the same bytes
+                result = current;
+            } else {
+                final boolean replacing = current.bytes != null
+                        || current.bytesEvicted();
+                result = current.withBytes(bytes, this.charset != null,
+                        replacing && !current.isSameBytes(bytes));
+            }
+            this.snapshot.set(result);
+            this.cacheStrategy.binaryCacheRefreshed(this, bytes);
+            this.budget.buffered(this, result);
+            return result;
+        }
+    }
+
+    /**
+     * Drops the given buffered content if it is still the current content of this
+     * resource. Never blocks, as it might be called while another resource is being
+     * refreshed.
+     *
+     * @param content The content to drop.
+     * @return Whether the content has been dropped.
+     */
+    final boolean evict(Snapshot content) {
+        return this.snapshot.compareAndSet(content, content.evicted());
     }
 
     protected final boolean rebufferBytes() throws IOException {
-        return this.cacheStrategy.refreshBinaryCache(this);
+        final Measurement checking = this.metrics.startFreshnessCheck();
+        final boolean stale = this.cacheStrategy.refreshBinaryCache(this);
+        this.metrics.freshnessChecked(stale, checking);
+        return stale;
     }
 
     protected final boolean rebufferChars() throws IOException {
-        return this.cacheStrategy.refreshTextCache(this);
+        final Measurement checking = this.metrics.startFreshnessCheck();
+        final boolean stale = this.cacheStrategy.refreshTextCache(this);
+        this.metrics.freshnessChecked(stale, checking);
+        return stale;
     }
 
     @Override
@@ -8,7 +8,13 @@ import java.io.IOException;
  * instance that is passed into every method. If an implementation is not state less it
  * must be thread safe for general purpose use.
  * <p>
- * A cached resource separately caches its binary and its text content.
+ * If the charset of a resource has been specified explicitly, only its binary content
+ * is cached and the text content is decoded from it. In this case, only the methods
+ * concerning the binary cache will be called. Otherwise, a cached resource
+ * separately caches its binary and its text content. Calls to the
+ * strategy are never performed concurrently for the same resource. While the
+ * content of a resource is being refreshed, other threads keep reading the
+ * previously cached content.
  * </p>
  *
  * @author Simon Taddiken
@@ -5,25 +5,50 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.Charset;
 
+/**
+ * Resource which is loaded using a ClassLoader. The resource's URL is only looked
+ * up once and is looked up again if accessing it fails. Resources which have been
+ * found within a jar file are never checked for modifications again.
+ *
+ * @author Simon Taddiken
+ */
 final class ClassPathResource extends AbstractURLResource {
 
+    private final ResourceUtil util;
     private final String resourcePath;
     private final ClassLoader classLoader;
+    // null until resolved or after resolved url became invalid
+    private volatile URL url;
 
     ClassPathResource(ResourceUtil util, ClassLoader classLoader, String resourcePath,
             Charset charset) {
         super(util, charset);
+        this.util = util;
         this.classLoader = classLoader;
         this.resourcePath = resourcePath;
     }
 
     @Override
     protected URL getURL() throws IOException {
-        final URL url = this.classLoader.getResource(this.resourcePath);
-        if (url == null) {
-            resourceNotFound();
+        URL result = this.url;
+        if (result == null) {
+            result = this.classLoader.getResource(this.resourcePath);
+            if (result == null) {
+                resourceNotFound();
+            }
+            this.url = result;
         }
-        return url;
+        return result;
+    }
+
+    @Override
+    protected boolean isImmutable(URL url) {
+        return this.util.isJarEntry(url);
+    }
+
+    @Override
+    protected void invalidateURL() {
+        this.url = null;
     }
 
     private void resourceNotFound() throws FileNotFoundException {
@@ -1,6 +1,6 @@
 package de.skuzzle.inject.conf;
 
-final class ConstantCacheStrategy implements CachingStrategy {
+final class ConstantCacheStrategy implements CachingStrategy, StalenessHint {
 
     private static final CachingStrategy INSTANCE = new ConstantCacheStrategy();
 
@@ -32,4 +32,13 @@ final class ConstantCacheStrategy implements CachingStrategy {
         return false;
     }
 
+    @Override
+    public boolean textMightBeStale() {
+        return false;
+    }
+
+    @Override
+    public boolean binaryMightBeStale() {
+        return false;
+    }
 }
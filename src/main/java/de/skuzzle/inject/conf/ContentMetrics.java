@@ -0,0 +1,183 @@
+package de.skuzzle.inject.conf;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the events concerning the buffered content of a cached resource. A cached
+ * resource may be shared by multiple bindings, so its events are reported to the
+ * {@link BindingMetrics} of each of them. Flight recorder events are emitted only
+ * once and name all of these bindings.
+ *
+ * @author Simon Taddiken
+ */
+final class ContentMetrics {
+
+    private static final BindingMetrics[] NO_BINDINGS = new BindingMetrics[0];
+
+    // copied on write, so events can be reported without allocating
+    private volatile BindingMetrics[] bindings;
+    // null if JFR is not available or no binding has been added yet
+    private volatile FlightRecorderMetrics recorder;
+
+    ContentMetrics() {
+        this.bindings = NO_BINDINGS;
+    }
+
+    /**
+     * Adds a binding to which all subsequent events will be reported.
+     *
+     * @param binding The metrics of the binding.
+     */
+    synchronized void add(BindingMetrics binding) {
+        if (this.recorder == null) {
+            // all bindings which share a resource share the same location
+            this.recorder = FlightRecording.newRecorder(binding.getLocation());
+        }
+        final BindingMetrics[] current = this.bindings;
+        final BindingMetrics[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = binding;
+        this.bindings = extended;
+    }
+
+    private boolean isListening() {
+        for (final BindingMetrics binding : this.bindings) {
+            if (binding.isListening()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts measuring an event which is not recorded by the flight recorder.
+     *
+     * @return The measurement which must be passed to the event or null if nothing
+     *         is measured.
+     */
+    Measurement start() {
+        return measure(null);
+    }
+
+    Measurement startLoad() {
+        final FlightRecorderMetrics recorder = this.recorder;
+        return measure(recorder == null
+                ? null
+                : recorder.beginLoad());
+    }
+
+    Measurement startFreshnessCheck() {
+        final FlightRecorderMetrics recorder = this.recorder;
+        return measure(recorder == null
+                ? null
+                : recorder.beginFreshnessCheck());
+    }
+
+    Measurement startRefresh() {
+        final FlightRecorderMetrics recorder = this.recorder;
+        return measure(recorder == null
+                ? null
+                : recorder.beginRefresh());
+    }
+
+    private Measurement measure(Object event) {
+        final boolean timed = isListening();
+        if (!timed && event == null) {
+            return null;
+        }
+        return new Measurement(timed, event);
+    }
+
+    void resourceOpened(Measurement measurement) {
+        if (measurement != null && measurement.isTimed()) {
+            final long nanos = measurement.elapsedNanos();
+            for (final BindingMetrics binding : this.bindings) {
+                binding.resourceOpened(nanos);
+            }
+        }
+    }
+
+    void resourceRead(long size, Measurement measurement) {
+        if (measurement == null) {
+            return;
+        }
+        if (measurement.isTimed()) {
+            final long nanos = measurement.elapsedNanos();
+            for (final BindingMetrics binding : this.bindings) {
+                binding.resourceRead(size, nanos);
+            }
+        }
+        if (measurement.getEvent() != null) {
+            this.recorder.loaded(measurement.getEvent(), this, size);
+        }
+    }
+
+    void textDecoded(long chars, Measurement measurement) {
+        if (measurement != null && measurement.isTimed()) {
+            final long nanos = measurement.elapsedNanos();
+            for (final BindingMetrics binding : this.bindings) {
+                binding.textDecoded(chars, nanos);
+            }
+        }
+    }
+
+    void freshnessChecked(boolean stale, Measurement measurement) {
+        if (measurement == null) {
+            return;
+        }
+        if (measurement.isTimed()) {
+            final long nanos = measurement.elapsedNanos();
+            for (final BindingMetrics binding : this.bindings) {
+                binding.freshnessChecked(stale, nanos);
+            }
+        }
+        if (measurement.getEvent() != null) {
+            this.recorder.freshnessChecked(measurement.getEvent(), this, stale);
+        }
+    }
+
+    void contentRefreshed(boolean changed, Measurement measurement) {
+        if (measurement == null) {
+            return;
+        }
+        if (measurement.isTimed()) {
+            final long nanos = measurement.elapsedNanos();
+            for (final BindingMetrics binding : this.bindings) {
+                binding.contentRefreshed(changed, nanos);
+            }
+        }
+        if (measurement.getEvent() != null) {
+            this.recorder.refreshed(measurement.getEvent(), this, changed);
+        }
+    }
+
+    void cacheHit() {
+        for (final BindingMetrics binding : this.bindings) {
+            binding.cacheHit();
+        }
+    }
+
+    void cacheMiss() {
+        for (final BindingMetrics binding : this.bindings) {
+            binding.cacheMiss();
+        }
+    }
+
+    void refreshFailed(IOException error) {
+        for (final BindingMetrics binding : this.bindings) {
+            binding.refreshFailed(error);
+        }
+    }
+
+    /**
+     * Names all bindings to which events are reported. Only called when a flight
+     * recorder event is committed.
+     */
+    @Override
+    public String toString() {
+        return Arrays.stream(this.bindings)
+                .map(binding -> String.valueOf(binding.getKey()))
+                .collect(Collectors.joining(", "));
+    }
+}
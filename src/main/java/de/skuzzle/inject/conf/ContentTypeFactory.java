@@ -12,6 +12,8 @@ interface ContentTypeFactory {
 
     TextContentType newJsonContentType(GsonBuilder builder);
 
+    TextContentType newLazyJsonContentType(GsonBuilder builder);
+
     TextContentType newPropertiesContentType();
 
     TextContentType newStringContentType();
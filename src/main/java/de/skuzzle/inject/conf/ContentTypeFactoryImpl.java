@@ -12,7 +12,12 @@ class ContentTypeFactoryImpl implements ContentTypeFactory {
 
     @Override
     public TextContentType newJsonContentType(GsonBuilder builder) {
-        return new JsonContentType(this.beanUtil, builder);
+        return new JsonContentType(this.beanUtil, builder, false);
+    }
+
+    @Override
+    public TextContentType newLazyJsonContentType(GsonBuilder builder) {
+        return new JsonContentType(this.beanUtil, builder, true);
     }
 
     @Override
@@ -8,6 +8,20 @@ import java.io.File;
  * automatically discovered when being registered as a service provider. When
  * two ore more converters are registered for the same type, an arbitrary one
  * will win (a warning will be logged).
+ * <p>
+ * Since 0.4.0, converters can also be bound in the injector. Every binding for
+ * {@code Converter} is picked up when the injector is created and takes
+ * precedence over service providers for the same type:
+ * </p>
+ *
+ * <pre>
+ * bind(new TypeLiteral&lt;Converter&lt;Color&gt;&gt;() {}).to(ColorConverter.class);
+ * </pre>
+ * <p>
+ * Types without a converter can still be converted if they declare a public
+ * static {@code valueOf(String)} method or a public constructor taking a single
+ * String.
+ * </p>
  *
  * @author Simon Taddiken
  * @param <T> The target type.
@@ -1,21 +1,50 @@
 package de.skuzzle.inject.conf;
 
-import static com.google.common.base.Preconditions.checkState;
-
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+
+/**
+ * Resolves the function which parses a String into a certain target type. The
+ * function is resolved only once per target type and then cached, so subsequent
+ * conversions only need a single lookup. Resolution considers, in this order:
+ * <ol>
+ * <li>primitive types, their wrappers, String and Object</li>
+ * <li>enum types</li>
+ * <li>{@link Converter converters} for exactly the target type. Converters
+ * contributed through Guice take precedence over those discovered as service
+ * providers.</li>
+ * <li>converters for a sub type of the target type. If there are multiple, the
+ * converter for the most specific sub type is used. Among unrelated sub types,
+ * the converter which has been registered first is used.</li>
+ * <li>a public static {@code valueOf(String)} method of the target type</li>
+ * <li>a public constructor of the target type taking a single String</li>
+ * </ol>
+ *
+ * @author Simon Taddiken
+ */
 final class Converters {
 
     private static final Logger LOG = LoggerFactory.getLogger(Converters.class);
 
     private static final Map<Class<?>, Converter<?>> CONVERTERS;
     private static final Map<Class<?>, Function<String, ?>> PARSERS;
+    private static final Converters DEFAULT;
 
     static {
         PARSERS = new HashMap<>();
@@ -38,37 +67,180 @@ final class Converters {
 
         @SuppressWarnings("rawtypes")
         final ServiceLoader<Converter> converters = ServiceLoader.load(Converter.class);
-        CONVERTERS = new HashMap<>();
-        converters.forEach(converter -> {
-            final Class<?> type = converter.forType();
-            LOG.debug("Registering converter {} for {}", converter, type.getName());
-            final Converter<?> previous = CONVERTERS.put(type, converter);
-            if (previous != null) {
-                LOG.warn("Duplicated converter mapping. Converter {} for type {} has " +
-                        "been overridden with converter {}", previous, type.getName(),
-                        converter);
+        CONVERTERS = new LinkedHashMap<>();
+        converters.forEach(converter -> register(CONVERTERS, converter));
+        DEFAULT = new Converters();
+    }
+
+    // converters which have been bound in the injector
+    private volatile Map<Class<?>, Converter<?>> contributed;
+    private volatile ClassValue<Function<String, ?>> parseFunctions;
+
+    Converters() {
+        this.contributed = Collections.emptyMap();
+        this.parseFunctions = newCache();
+    }
+
+    /**
+     * Parses the given String using the converters which have been discovered as
+     * service providers.
+     *
+     * @param targetType The type to convert to.
+     * @param s The String to parse.
+     * @return The converted object.
+     */
+    public static <T> T parseString(Class<T> targetType, String s) {
+        return DEFAULT.parse(targetType, s);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T parse(Class<T> targetType, String s) {
+        return (T) this.parseFunctions.get(targetType).apply(s);
+    }
+
+    /**
+     * Registers all {@link Converter converters} which are bound in the given
+     * injector or any of its parents. Any binding whose raw type is
+     * {@link Converter} is considered, so converters can be bound like
+     * {@code bind(new TypeLiteral<Converter<Color>>() {}).to(ColorConverter.class)}.
+     *
+     * @param injector The injector.
+     */
+    void contribute(Injector injector) {
+        final Map<Class<?>, Converter<?>> converters = new LinkedHashMap<>();
+        contributeFrom(injector, converters);
+
+        this.contributed = converters;
+        // functions which have already been resolved might be outdated now
+        this.parseFunctions = newCache();
+    }
+
+    private static void contributeFrom(Injector injector,
+            Map<Class<?>, Converter<?>> target) {
+        if (injector.getParent() != null) {
+            // converters of the parent are shadowed by those of the child
+            contributeFrom(injector.getParent(), target);
+        }
+        for (final Binding<?> binding : injector.getBindings().values()) {
+            if (binding.getKey().getTypeLiteral().getRawType() == Converter.class) {
+                register(target, (Converter<?>) binding.getProvider().get());
             }
-        });
+        }
     }
 
-    private Converters() {
-        // hidden constructor
+    private static void register(Map<Class<?>, Converter<?>> target,
+            Converter<?> converter) {
+        final Class<?> type = converter.forType();
+        LOG.debug("Registering converter {} for {}", converter, type.getName());
+        final Converter<?> previous = target.put(type, converter);
+        if (previous != null) {
+            LOG.warn("Duplicated converter mapping. Converter {} for type {} has " +
+                    "been overridden with converter {}", previous, type.getName(),
+                    converter);
+        }
+    }
+
+    private ClassValue<Function<String, ?>> newCache() {
+        return new ClassValue<Function<String, ?>>() {
+
+            @Override
+            protected Function<String, ?> computeValue(Class<?> type) {
+                return resolve(type);
+            }
+        };
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
-    public static <T> T parseString(Class<T> targetType, String s) {
-        if (targetType.isEnum()) {
+    private Function<String, ?> resolve(Class<?> type) {
+        final Function<String, ?> prim = PARSERS.get(type);
+        if (prim != null) {
+            return prim;
+        } else if (type.isEnum()) {
             // must use raw type here
-            return (T) Enum.valueOf((Class) targetType, s);
+            return s -> Enum.valueOf((Class) type, s);
         }
 
-        final Function<String, T> prim = (Function<String, T>) PARSERS.get(targetType);
-        if (prim != null) {
-            return prim.apply(s);
+        final Map<Class<?>, Converter<?>> contributed = this.contributed;
+        Converter<?> converter = contributed.get(type);
+        if (converter == null) {
+            converter = CONVERTERS.get(type);
+        }
+        if (converter == null) {
+            converter = findSubTypeConverter(type, contributed);
+        }
+        if (converter == null) {
+            converter = findSubTypeConverter(type, CONVERTERS);
+        }
+        if (converter != null) {
+            return converter::parseString;
+        }
+
+        final MethodHandle handle = findFactory(type);
+        if (handle != null) {
+            final MethodHandle generic = handle.asType(
+                    MethodType.methodType(Object.class, String.class));
+            return s -> invoke(generic, type, s);
+        }
+
+        return s -> {
+            throw new IllegalStateException(String.format(
+                    "No conversion for String '%s' to %s available", s, type.getName()));
+        };
+    }
+
+    // the most specific sub type wins. Unrelated sub types are chosen in the order
+    // in which their converters have been registered
+    private static Converter<?> findSubTypeConverter(Class<?> type,
+            Map<Class<?>, Converter<?>> converters) {
+        final List<Class<?>> candidates = converters.keySet().stream()
+                .filter(type::isAssignableFrom)
+                .collect(Collectors.toList());
+        for (final Class<?> candidate : candidates) {
+            final boolean mostSpecific = candidates.stream()
+                    .noneMatch(other -> other != candidate
+                            && candidate.isAssignableFrom(other));
+            if (mostSpecific) {
+                final Converter<?> converter = converters.get(candidate);
+                LOG.debug("Using converter {} for {} to convert to {}", converter,
+                        candidate.getName(), type.getName());
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    private static MethodHandle findFactory(Class<?> type) {
+        if (type.isPrimitive() || type.isArray()) {
+            return null;
+        }
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            return lookup.findStatic(type, "valueOf",
+                    MethodType.methodType(type, String.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            LOG.trace("{} has no accessible valueOf(String) method", type.getName());
+        }
+
+        if (Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            return lookup.findConstructor(type,
+                    MethodType.methodType(void.class, String.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            LOG.trace("{} has no accessible String constructor", type.getName());
+        }
+        return null;
+    }
+
+    private static Object invoke(MethodHandle handle, Class<?> type, String s) {
+        try {
+            return (Object) handle.invokeExact(s);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new ConverterException(String.format(
+                    "Error while converting String '%s' to %s", s, type.getName()), e);
         }
-        final Converter<T> converter = (Converter<T>) CONVERTERS.get(targetType);
-        checkState(converter != null, "No conversion for String '%s' to %s available",
-                s, targetType.getName());
-        return converter.parseString(s);
     }
 }
@@ -4,11 +4,18 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import javax.inject.Provider;
@@ -17,20 +24,26 @@ import javax.servlet.ServletContext;
 import com.google.gson.GsonBuilder;
 import com.google.inject.Binder;
 import com.google.inject.Key;
+import com.google.inject.ProvisionException;
 import com.google.inject.binder.ScopedBindingBuilder;
 import com.google.inject.name.Names;
+import com.google.inject.util.Types;
 
 import de.skuzzle.inject.conf.Resources.ChooseBufferType;
+import de.skuzzle.inject.conf.Resources.ChooseBufferedResources;
 import de.skuzzle.inject.conf.Resources.ChooseContentType;
 import de.skuzzle.inject.conf.Resources.ChooseContentTypeAndCharset;
 import de.skuzzle.inject.conf.Resources.ChooseResources;
 import de.skuzzle.inject.conf.Resources.ChooseTargetType;
+import de.skuzzle.inject.conf.Resources.ChooseWatchedResources;
 import de.skuzzle.inject.conf.Resources.Finalize;
 import de.skuzzle.inject.conf.Resources.FinalizeWithScope;
 import de.skuzzle.inject.conf.Resources.TypeAlreadyChosen;
 
 final class DSLImpl implements
         ChooseBufferType,
+        ChooseBufferedResources,
+        ChooseWatchedResources,
         ChooseResources,
         ChooseContentType,
         ChooseContentTypeAndCharset,
@@ -42,9 +55,20 @@ final class DSLImpl implements
 
     private Charset charset;
     private Function<Charset, TextResource> resourceFactory;
+    // identifies the resource for sharing its cache, null if it can not be shared
+    private Object resourceLocation;
+    // human readable description of the resource
+    private String locationName;
     private MutableProvider<ServletContext> servletCtxProvider;
     // null until set
     private CachingStrategy cacheStrategy;
+    // strategy will be created when the file is known
+    private boolean watchFiles;
+    // file to be watched by the injector's watcher, null if not watching
+    private Path watchedFile;
+    private boolean compact;
+    // 0 if cached content is refreshed inline
+    private long refreshIntervalNanos;
 
     private final TextResourceFactory textResourceFactory;
     private final ContentTypeFactory contentTypeFactory;
@@ -87,6 +111,12 @@ final class DSLImpl implements
             new FinalizeImpl<>(key).using(binder);
         }
 
+        @Override
+        public void usingAsync(Binder binder, Executor executor) {
+            final Key<T> key = Key.get(this.type);
+            new FinalizeImpl<>(key).usingAsync(binder, executor);
+        }
+
         @Override
         public FinalizeWithScope<T> annotatedWith(Annotation annotation) {
             final Key<T> key = Key.get(this.type, annotation);
@@ -117,11 +147,19 @@ final class DSLImpl implements
 
         @SuppressWarnings("unchecked")
         private T create(Provider<TextContentType> contentTypeProvider,
-                TextResource resource) {
+                TextResource resource, BindingMetrics metrics) {
             final Class<T> targetType = (Class<T>) this.targetKey
                     .getTypeLiteral().getRawType();
             final TextContentType contentTypeInst = contentTypeProvider.get();
-            return contentTypeInst.createInstance(targetType, resource);
+            final Measurement creation = metrics.startCreation();
+            try {
+                final T instance = contentTypeInst.createInstance(targetType, resource);
+                metrics.instanceCreated(creation);
+                return instance;
+            } catch (final RuntimeException e) {
+                metrics.creationFailed(e);
+                throw e;
+            }
         }
 
         @Override
@@ -132,13 +170,51 @@ final class DSLImpl implements
         }
 
         @Override
-        @SuppressWarnings("unchecked")
         public void using(Binder binder) {
             checkArgument(binder != null, "binder is null");
 
-            final TextResource resource = createResource();
+            final Provider<T> provider = createProvider(binder);
+            bindInScope(binder.bind(this.targetKey).toProvider(provider));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void usingAsync(Binder binder, Executor executor) {
+            checkArgument(binder != null, "binder is null");
+            checkArgument(executor != null, "executor is null");
+
+            final Provider<T> provider = createProvider(binder);
+            final Type targetType = this.targetKey.getTypeLiteral().getType();
+            final Key<SharedStage<T>> sharedKey = SharedStage.newKey(targetType);
+            final Key<CompletionStage<T>> asyncKey = (Key<CompletionStage<T>>)
+                    this.targetKey.ofType(Types.newParameterizedType(
+                            CompletionStage.class, targetType));
+
+            // the scope applies to the shared load, while every consumer receives
+            // its own stage
+            final Provider<SharedStage<T>> sharedStage = () ->
+                    new SharedStage<>(provider, executor);
+            bindInScope(binder.bind(sharedKey).toProvider(sharedStage));
+            final Provider<SharedStage<T>> scopedStage = binder.getProvider(sharedKey);
+            final Provider<CompletionStage<T>> asyncProvider = () ->
+                    scopedStage.get().newStage();
+            binder.bind(asyncKey).toProvider(asyncProvider);
+        }
+
+        private void bindInScope(ScopedBindingBuilder builder) {
+            if (this.scope != null) {
+                builder.in(this.scope);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Provider<T> createProvider(Binder binder) {
             final Provider<TextContentType> contentTypeProvider;
             if (DSLImpl.this.contentType != null) {
+                if (DSLImpl.this.contentType instanceof JsonContentType) {
+                    ((JsonContentType) DSLImpl.this.contentType).prepare(
+                            this.targetKey.getTypeLiteral().getRawType());
+                }
                 binder.requestInjection(DSLImpl.this.contentType);
                 contentTypeProvider = () -> DSLImpl.this.contentType;
             } else {
@@ -149,31 +225,91 @@ final class DSLImpl implements
                         DSLImpl.this.contentTypeType);
             }
 
-            final Provider<T> provider = () -> create(contentTypeProvider, resource);
+            final BindingMetrics metrics = new BindingMetrics(this.targetKey,
+                    DSLImpl.this.locationName);
+            binder.requestInjection(metrics);
+
+            final Provider<T> provider;
+            if (isCached()) {
+                // resources are shared through the registry of the injector, which
+                // only exists once the injector is being created
+                final SharedResource resource = new SharedResource(
+                        binder.getProvider(ResourceRegistry.class),
+                        cachedResourceFactory(), metrics);
+                binder.requestInjection(resource);
+                provider = new MemoizingProvider<>(resource,
+                        () -> create(contentTypeProvider, resource.get(), metrics),
+                        metrics);
+            } else {
+                final TextResource resource = new MeteredTextResource(
+                        createResource(), metrics);
+                provider = () -> create(contentTypeProvider, resource, metrics);
+            }
+
             if (DSLImpl.this.servletCtxProvider != null) {
                 final Provider<ServletContext> realProvider = binder.getProvider(
                         ServletContext.class);
                 DSLImpl.this.servletCtxProvider.set(realProvider);
             }
-            final ScopedBindingBuilder builder = binder
-                    .bind(this.targetKey)
-                    .toProvider(provider);
-
-            if (this.scope != null) {
-                builder.in(this.scope);
-            }
+            return new ResourceProvider<>(provider);
         }
     }
 
+    private boolean isCached() {
+        return this.cacheStrategy != null || this.watchedFile != null;
+    }
+
     private TextResource createResource() {
-        final TextResource root = DSLImpl.this.resourceFactory.apply(
-                DSLImpl.this.charset);
+        return this.resourceFactory.apply(this.charset);
+    }
+
+    private Function<ResourceRegistry, CachedTextResource> cachedResourceFactory() {
+        checkState(isCached(), "no caching strategy specified");
+        // the resource is created later on, so the current settings are captured
+        final Object location = this.resourceLocation;
+        final Function<Charset, TextResource> resourceFactory = this.resourceFactory;
+        final Charset charset = this.charset;
+        final CachingStrategy strategy = this.cacheStrategy;
+        final Path watchedFile = this.watchedFile;
+        final boolean compact = this.compact;
+        final long refreshIntervalNanos = this.refreshIntervalNanos;
+        final Function<ResourceRegistry, CachedTextResource> factory = registry ->
+                newCachedResource(resourceFactory.apply(charset),
+                        watchedFile == null
+                                ? strategy
+                                : watch(registry.getFileWatcher(), watchedFile),
+                        charset, compact, refreshIntervalNanos, registry.getBudget());
+        if (location == null) {
+            return factory;
+        }
+        // watched files are registered with the watcher of the injector
+        final Object strategyKey = watchedFile == null
+                ? strategy
+                : WatchServiceCacheStrategy.class;
+        return registry -> registry.getCached(location, charset, strategyKey, compact,
+                refreshIntervalNanos, () -> factory.apply(registry));
+    }
 
-        if (this.cacheStrategy != null) {
-            return this.textResourceFactory.cache(root, this.cacheStrategy);
+    private static CachingStrategy watch(FileWatcher watcher, Path file) {
+        try {
+            return WatchServiceCacheStrategy.watch(watcher, file);
+        } catch (final IOException e) {
+            throw new ProvisionException(String.format(
+                    "Can not watch '%s' for changes", file), e);
         }
+    }
 
-        return root;
+    private CachedTextResource newCachedResource(TextResource resource,
+            CachingStrategy strategy, Charset charset, boolean compact,
+            long refreshIntervalNanos, CacheBudget budget) {
+        final boolean inlineRefresh = refreshIntervalNanos == 0;
+        final CachedTextResource cached = this.textResourceFactory.cache(resource,
+                strategy, charset, compact, inlineRefresh, budget);
+        if (!inlineRefresh) {
+            BackgroundRefresher.getInstance().schedule(cached, refreshIntervalNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+        return cached;
     }
 
     @Override
@@ -201,6 +337,13 @@ final class DSLImpl implements
         return this;
     }
 
+    @Override
+    public ChooseTargetType containingLazyJson() {
+        this.contentType = this.contentTypeFactory.newLazyJsonContentType(
+                new GsonBuilder());
+        return this;
+    }
+
     @Override
     public TypeAlreadyChosen<String> containingText() {
         this.contentType = this.contentTypeFactory.newStringContentType();
@@ -264,15 +407,20 @@ final class DSLImpl implements
     public ChooseContentTypeAndCharset classPathResource(String path) {
         checkArgument(path != null, "path is null");
         final ClassLoader cl = Thread.currentThread().getContextClassLoader();
-        this.resourceFactory = cs -> this.textResourceFactory.newClassPathResource(
-                path, cl, cs);
-        return this;
+        return classPathResourceWith(path, cl);
     }
 
     @Override
     public ChooseContentTypeAndCharset classPathResource(String path, ClassLoader cl) {
         checkArgument(path != null, "path is null");
         checkArgument(cl != null, "cl is null");
+        return classPathResourceWith(path, cl);
+    }
+
+    private ChooseContentTypeAndCharset classPathResourceWith(String path,
+            ClassLoader cl) {
+        this.resourceLocation = Arrays.asList("classpath", cl, path);
+        this.locationName = "classpath:" + path;
         this.resourceFactory = cs -> this.textResourceFactory.newClassPathResource(
                 path, cl, cs);
         return this;
@@ -282,6 +430,9 @@ final class DSLImpl implements
     public ChooseContentTypeAndCharset servletResource(String path) {
         checkArgument(path != null, "path is null");
         this.servletCtxProvider = new MutableProvider<>();
+        // the servlet context differs between injectors
+        this.resourceLocation = null;
+        this.locationName = "servlet:" + path;
         this.resourceFactory = cs -> this.textResourceFactory.newServletResource(path,
                 this.servletCtxProvider, cs);
         return this;
@@ -290,21 +441,55 @@ final class DSLImpl implements
     @Override
     public ChooseContentTypeAndCharset fileResource(File file) {
         checkArgument(file != null, "file is null");
-        this.resourceFactory = cs -> this.textResourceFactory.newNioResource(
-                file.toPath(), cs);
-        return this;
+        return nioResource(file.toPath());
     }
 
     @Override
     public ChooseContentTypeAndCharset pathResource(Path path) {
         checkArgument(path != null, "path is null");
+        return nioResource(path);
+    }
+
+    @Override
+    public ChooseContentTypeAndCharset mappedFileResource(Path path) {
+        checkArgument(path != null, "path is null");
+        watchIfRequested(path);
+        this.resourceLocation = Arrays.asList("mapped", canonical(path));
+        this.locationName = path.toString();
+        this.resourceFactory = cs -> this.textResourceFactory.newMappedFileResource(
+                path, cs);
+        return this;
+    }
+
+    private ChooseContentTypeAndCharset nioResource(Path path) {
+        watchIfRequested(path);
+        this.resourceLocation = Arrays.asList("file", canonical(path));
+        this.locationName = path.toString();
         this.resourceFactory = cs -> this.textResourceFactory.newNioResource(path, cs);
         return this;
     }
 
+    private static Path canonical(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private void watchIfRequested(Path path) {
+        if (this.watchFiles) {
+            final Path directory = canonical(path).getParent();
+            checkArgument(directory != null && Files.isDirectory(directory),
+                    "Can not watch '%s' for changes because its directory does not "
+                            + "exist", path);
+            // the file is registered once the injector's watcher is known
+            this.watchedFile = path;
+        }
+    }
+
     @Override
     public ChooseContentTypeAndCharset urlResource(URL url) {
         checkArgument(url != null, "url is null");
+        // URL.equals would resolve host names
+        this.resourceLocation = Arrays.asList("url", url.toExternalForm());
+        this.locationName = url.toExternalForm();
         this.resourceFactory = cs -> this.textResourceFactory.newURLResource(url, cs);
         return this;
     }
@@ -314,6 +499,8 @@ final class DSLImpl implements
         checkArgument(url != null, "url is null");
         try {
             final URL u = new URL(url);
+            this.resourceLocation = Arrays.asList("url", u.toExternalForm());
+            this.locationName = url;
             this.resourceFactory = cs -> this.textResourceFactory.newURLResource(u, cs);
         } catch (final MalformedURLException e) {
             throw new IllegalArgumentException(e);
@@ -324,25 +511,48 @@ final class DSLImpl implements
     @Override
     public ChooseContentTypeAndCharset resource(TextResource resource) {
         checkArgument(resource != null, "resource is null");
+        this.resourceLocation = resource;
+        this.locationName = resource.toString();
         this.resourceFactory = cs -> resource;
         return this;
     }
 
     @Override
-    public ChooseResources cached(CachingStrategy strategy) {
+    public ChooseBufferedResources cached(CachingStrategy strategy) {
         checkArgument(strategy != null, "strategy is null");
         this.cacheStrategy = strategy;
         return this;
     }
 
     @Override
-    public ChooseResources changing() {
+    public ChooseBufferedResources changing() {
+        this.cacheStrategy = new TimestampCacheStrategy();
+        return this;
+    }
+
+    @Override
+    public ChooseBufferedResources refreshing(long interval, TimeUnit unit) {
+        checkArgument(interval > 0, "interval must be positive");
+        checkArgument(unit != null, "unit is null");
         this.cacheStrategy = new TimestampCacheStrategy();
+        this.refreshIntervalNanos = unit.toNanos(interval);
+        return this;
+    }
+
+    @Override
+    public ChooseWatchedResources watching() {
+        this.watchFiles = true;
+        return this;
+    }
+
+    @Override
+    public DSLImpl compact() {
+        this.compact = true;
         return this;
     }
 
     @Override
-    public ChooseResources constant() {
+    public ChooseBufferedResources constant() {
         this.cacheStrategy = ConstantCacheStrategy.getInstance();
         return this;
     }
@@ -0,0 +1,250 @@
+package de.skuzzle.inject.conf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Watches files for changes using a single {@link WatchService} and a single
+ * background thread. Files within the same directory share the registration of
+ * that directory. Listeners are only weakly referenced, so they will silently be
+ * removed once they are no longer used.
+ * <p>
+ * The watcher is bound just in time as singleton, so every injector hierarchy
+ * watches its own files. The background thread is started when the first file is
+ * registered and stops once no registered listener is in use anymore, so a watcher
+ * of an injector which has been discarded does not keep its thread running.
+ * </p>
+ *
+ * @author Simon Taddiken
+ */
+@Singleton
+class FileWatcher {
+
+    /**
+     * Callback for changes of a watched file.
+     *
+     * @author Simon Taddiken
+     */
+    interface Listener {
+
+        /**
+         * Called from the watcher thread when the watched file has been created,
+         * modified or deleted.
+         */
+        void fileChanged();
+
+        /**
+         * Called from the watcher thread when the watched file can no longer be
+         * watched, for example because its directory has been deleted.
+         */
+        void watchCancelled();
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileWatcher.class);
+
+    // how often the thread checks whether all listeners have been dropped
+    private static final long IDLE_CHECK_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private final FileSystem fileSystem;
+    private final long idleCheckMillis;
+    // all fields below are guarded by 'this'
+    private final Map<Path, Map<Path, List<WeakReference<Listener>>>> directories;
+    private WatchService watchService;
+
+    @Inject
+    FileWatcher() {
+        this(FileSystems.getDefault());
+    }
+
+    FileWatcher(FileSystem fileSystem) {
+        this(fileSystem, IDLE_CHECK_MILLIS);
+    }
+
+    FileWatcher(FileSystem fileSystem, long idleCheckMillis) {
+        this.fileSystem = fileSystem;
+        this.idleCheckMillis = idleCheckMillis;
+        this.directories = new HashMap<>();
+    }
+
+    /**
+     * Registers a listener which will be notified about changes of the given file.
+     * The file's parent directory must exist.
+     *
+     * @param file The file to watch.
+     * @param listener The listener to notify. Only a weak reference to the listener
+     *            will be retained.
+     * @throws IOException If the file's directory can not be watched.
+     */
+    synchronized void register(Path file, Listener listener) throws IOException {
+        checkArgument(file.getFileSystem() == this.fileSystem,
+                "'%s' is not located in the watched file system", file);
+
+        final Path absolute = file.toAbsolutePath().normalize();
+        final Path directory = absolute.getParent();
+        checkArgument(directory != null, "can not watch root directory '%s'", file);
+
+        Map<Path, List<WeakReference<Listener>>> files = this.directories.get(directory);
+        if (files == null) {
+            directory.register(getWatchService(), ENTRY_CREATE, ENTRY_DELETE,
+                    ENTRY_MODIFY);
+            files = new HashMap<>();
+            this.directories.put(directory, files);
+            LOG.debug("Watching directory {}", directory);
+        }
+        files.computeIfAbsent(absolute.getFileName(), key -> new ArrayList<>())
+                .add(new WeakReference<>(listener));
+    }
+
+    /**
+     * Whether the background thread is running.
+     *
+     * @return Whether any file is being watched.
+     */
+    synchronized boolean isRunning() {
+        return this.watchService != null;
+    }
+
+    private WatchService getWatchService() throws IOException {
+        if (this.watchService == null) {
+            this.watchService = this.fileSystem.newWatchService();
+            final Thread thread = new Thread(this::processEvents, "reguice-file-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return this.watchService;
+    }
+
+    private void processEvents() {
+        final WatchService service;
+        synchronized (this) {
+            service = this.watchService;
+        }
+        while (!Thread.currentThread().isInterrupted()) {
+            final WatchKey key;
+            try {
+                key = service.poll(this.idleCheckMillis, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final ClosedWatchServiceException e) {
+                return;
+            }
+            if (key == null) {
+                if (stopIfIdle(service)) {
+                    return;
+                }
+                continue;
+            }
+            final Path directory = (Path) key.watchable();
+            final List<WatchEvent<?>> events = key.pollEvents();
+            synchronized (this) {
+                dispatch(directory, events);
+                if (!key.reset()) {
+                    cancel(directory);
+                } else if (isUnused(directory)) {
+                    key.cancel();
+                    this.directories.remove(directory);
+                    LOG.debug("Stopped watching unused directory {}", directory);
+                }
+            }
+        }
+    }
+
+    // closes the watch service if no listener is in use anymore. A later
+    // registration creates a new service and thread
+    private synchronized boolean stopIfIdle(WatchService service) {
+        this.directories.keySet().removeIf(this::isUnused);
+        if (!this.directories.isEmpty()) {
+            return false;
+        }
+        try {
+            service.close();
+        } catch (final IOException e) {
+            LOG.debug("Error while closing unused watch service", e);
+        }
+        this.watchService = null;
+        LOG.debug("Stopped watching because no file is watched anymore");
+        return true;
+    }
+
+    private void dispatch(Path directory, List<WatchEvent<?>> events) {
+        final Map<Path, List<WeakReference<Listener>>> files = this.directories.get(
+                directory);
+        if (files == null) {
+            return;
+        }
+        for (final WatchEvent<?> event : events) {
+            if (event.kind() == OVERFLOW) {
+                // events might have been lost, so notify everyone
+                files.values().forEach(listeners -> notify(listeners, false));
+            } else {
+                final List<WeakReference<Listener>> listeners = files.get(
+                        (Path) event.context());
+                if (listeners != null) {
+                    notify(listeners, false);
+                }
+            }
+        }
+    }
+
+    private void cancel(Path directory) {
+        LOG.debug("Directory {} can no longer be watched", directory);
+        final Map<Path, List<WeakReference<Listener>>> files = this.directories.remove(
+                directory);
+        if (files != null) {
+            files.values().forEach(listeners -> notify(listeners, true));
+        }
+    }
+
+    private boolean isUnused(Path directory) {
+        final Map<Path, List<WeakReference<Listener>>> files = this.directories.get(
+                directory);
+        if (files == null) {
+            return true;
+        }
+        files.values().forEach(listeners -> listeners.removeIf(
+                ref -> ref.get() == null));
+        files.values().removeIf(List::isEmpty);
+        return files.isEmpty();
+    }
+
+    private static void notify(List<WeakReference<Listener>> listeners,
+            boolean cancelled) {
+        final Iterator<WeakReference<Listener>> it = listeners.iterator();
+        while (it.hasNext()) {
+            final Listener listener = it.next().get();
+            if (listener == null) {
+                it.remove();
+            } else if (cancelled) {
+                listener.watchCancelled();
+            } else {
+                listener.fileChanged();
+            }
+        }
+    }
+}
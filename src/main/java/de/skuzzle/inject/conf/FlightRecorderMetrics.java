@@ -0,0 +1,188 @@
+package de.skuzzle.inject.conf;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emits Java Flight Recorder events for a single resource location. The binding of
+ * an event is only converted to a String if the event is committed, so callers can
+ * pass a description which is expensive to compute. Must only be used through
+ * {@link FlightRecording}, which checks whether JFR is available. Events are begun
+ * before the measured work starts and are committed after it finished, so their
+ * start time and duration are recorded by JFR itself. Events are only created while
+ * their type is enabled in a running recording.
+ *
+ * @author Simon Taddiken
+ */
+final class FlightRecorderMetrics {
+
+    @Name("de.skuzzle.inject.conf.ResourceLoad")
+    @Label("Resource Load")
+    @Category("reguice")
+    @Description("Content of a resource has been read")
+    static final class ResourceLoadEvent extends Event {
+        @Label("Binding")
+        String binding;
+        @Label("Location")
+        String location;
+        @Label("Size")
+        @Description("Number of bytes or, if read as text, characters")
+        @DataAmount
+        long size;
+    }
+
+    @Name("de.skuzzle.inject.conf.FreshnessCheck")
+    @Label("Freshness Check")
+    @Category("reguice")
+    @Description("Caching strategy has been asked whether buffered content is outdated")
+    static final class FreshnessCheckEvent extends Event {
+        @Label("Binding")
+        String binding;
+        @Label("Location")
+        String location;
+        @Label("Stale")
+        boolean stale;
+    }
+
+    @Name("de.skuzzle.inject.conf.CacheRefresh")
+    @Label("Cache Refresh")
+    @Category("reguice")
+    @Description("Outdated content of a cached resource has been read again")
+    static final class CacheRefreshEvent extends Event {
+        @Label("Binding")
+        String binding;
+        @Label("Location")
+        String location;
+        @Label("Changed")
+        boolean changed;
+    }
+
+    @Name("de.skuzzle.inject.conf.ContentParse")
+    @Label("Content Parse")
+    @Category("reguice")
+    @Description("Object has been created from the content of a resource")
+    static final class ContentParseEvent extends Event {
+        @Label("Binding")
+        String binding;
+        @Label("Location")
+        String location;
+    }
+
+    @Name("de.skuzzle.inject.conf.ProxyCreation")
+    @Label("Proxy Creation")
+    @Category("reguice")
+    @Description("Proxy has been created which maps an interface to content")
+    static final class ProxyCreationEvent extends Event {
+        @Label("Interface")
+        Class<?> type;
+    }
+
+    private static final EventType RESOURCE_LOAD = EventType.getEventType(
+            ResourceLoadEvent.class);
+    private static final EventType FRESHNESS_CHECK = EventType.getEventType(
+            FreshnessCheckEvent.class);
+    private static final EventType CACHE_REFRESH = EventType.getEventType(
+            CacheRefreshEvent.class);
+    private static final EventType CONTENT_PARSE = EventType.getEventType(
+            ContentParseEvent.class);
+    private static final EventType PROXY_CREATION = EventType.getEventType(
+            ProxyCreationEvent.class);
+
+    private final String location;
+
+    FlightRecorderMetrics(String location) {
+        this.location = location;
+    }
+
+    private static <E extends Event> E begin(E event) {
+        event.begin();
+        return event;
+    }
+
+    static Object beginProxyCreation() {
+        return PROXY_CREATION.isEnabled()
+                ? begin(new ProxyCreationEvent())
+                : null;
+    }
+
+    static void proxyCreated(Object begun, Class<?> type) {
+        final ProxyCreationEvent event = (ProxyCreationEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.type = type;
+            event.commit();
+        }
+    }
+
+    Object beginLoad() {
+        return RESOURCE_LOAD.isEnabled()
+                ? begin(new ResourceLoadEvent())
+                : null;
+    }
+
+    void loaded(Object begun, Object binding, long size) {
+        final ResourceLoadEvent event = (ResourceLoadEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.binding = String.valueOf(binding);
+            event.location = this.location;
+            event.size = size;
+            event.commit();
+        }
+    }
+
+    Object beginFreshnessCheck() {
+        return FRESHNESS_CHECK.isEnabled()
+                ? begin(new FreshnessCheckEvent())
+                : null;
+    }
+
+    void freshnessChecked(Object begun, Object binding, boolean stale) {
+        final FreshnessCheckEvent event = (FreshnessCheckEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.binding = String.valueOf(binding);
+            event.location = this.location;
+            event.stale = stale;
+            event.commit();
+        }
+    }
+
+    Object beginRefresh() {
+        return CACHE_REFRESH.isEnabled()
+                ? begin(new CacheRefreshEvent())
+                : null;
+    }
+
+    void refreshed(Object begun, Object binding, boolean changed) {
+        final CacheRefreshEvent event = (CacheRefreshEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.binding = String.valueOf(binding);
+            event.location = this.location;
+            event.changed = changed;
+            event.commit();
+        }
+    }
+
+    Object beginParse() {
+        return CONTENT_PARSE.isEnabled()
+                ? begin(new ContentParseEvent())
+                : null;
+    }
+
+    void parsed(Object begun, Object binding) {
+        final ContentParseEvent event = (ContentParseEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.binding = String.valueOf(binding);
+            event.location = this.location;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package de.skuzzle.inject.conf;
+
+/**
+ * Emits Java Flight Recorder events if the running JVM supports them. The JFR API is
+ * available since Java 8u262. On older JVMs, no events are emitted and none of the
+ * event classes will be loaded.
+ *
+ * @author Simon Taddiken
+ */
+final class FlightRecording {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private FlightRecording() {
+        // hidden constructor
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a recorder which emits events for the binding of a resource.
+     *
+     * @param location Description of the bound resource.
+     * @return The recorder or null if JFR is not available.
+     */
+    static FlightRecorderMetrics newRecorder(String location) {
+        return AVAILABLE
+                ? new FlightRecorderMetrics(location)
+                : null;
+    }
+
+    /**
+     * Begins the event for creating a proxy.
+     *
+     * @return The event which must be passed to
+     *         {@link #proxyCreated(Object, Class)} or null if it is not recorded
+     *         because JFR is not available or no recording is running.
+     */
+    static Object beginProxyCreation() {
+        return AVAILABLE
+                ? FlightRecorderMetrics.beginProxyCreation()
+                : null;
+    }
+
+    /**
+     * Emits an event for a newly created proxy.
+     *
+     * @param event The event obtained from {@link #beginProxyCreation()}.
+     * @param type The interface implemented by the proxy.
+     */
+    static void proxyCreated(Object event, Class<?> type) {
+        if (event != null) {
+            FlightRecorderMetrics.proxyCreated(event, type);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package de.skuzzle.inject.conf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Resource which is loaded via HTTP. The last received content is remembered
+ * together with its <code>ETag</code> and <code>Last-Modified</code> headers, and
+ * every further access issues a conditional GET request. A <code>304 Not
+ * Modified</code> response is answered from the remembered content.
+ * <p>
+ * When {@link #getLastModifiedTime()} detects a modification, it already receives
+ * the new content, which is then served by the next call to
+ * {@link #openBinaryStream()} or {@link #openStream()} without another request.
+ * Likewise, asking for the modification date directly after the content has been
+ * served does not issue another request. Thus checking the freshness of the
+ * resource and refreshing its content only costs a single round trip. Whenever
+ * new content is received, the reported modification date increases, even if the
+ * server's <code>Last-Modified</code> header did not change.
+ * </p>
+ * <p>
+ * Requests are issued without holding any lock. Threads which need to contact the
+ * server while a request is already in flight wait for its response instead of
+ * issuing another one. Connecting and reading time out after
+ * {@value #CONNECT_TIMEOUT_MILLIS} and {@value #READ_TIMEOUT_MILLIS}
+ * milliseconds respectively.
+ * </p>
+ *
+ * @author Simon Taddiken
+ */
+final class HttpURLResource implements TextResource {
+
+    static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+    static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    private static final class Response {
+        private final byte[] body;
+        private final String etag;
+        private final String lastModifiedHeader;
+        private final long lastModified;
+        // null if not specified by the server
+        private final Charset charset;
+
+        private Response(byte[] body, String etag, String lastModifiedHeader,
+                long lastModified, Charset charset) {
+            this.body = body;
+            this.etag = etag;
+            this.lastModifiedHeader = lastModifiedHeader;
+            this.lastModified = lastModified;
+            this.charset = charset;
+        }
+    }
+
+    private final ResourceUtil util;
+    private final URL url;
+    private final Charset charset;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final ReaderSession session = new ReaderSession(this);
+
+    // all fields below are guarded by 'this'
+    // null until the first successful request
+    private Response response;
+    // content has been received while checking the modification date
+    private boolean unserved;
+    // content has just been served, so the modification date is still up to date
+    private boolean served;
+    // completes with whether new content has been received. null if no request is
+    // in flight
+    private CompletableFuture<Boolean> request;
+
+    HttpURLResource(ResourceUtil util, URL url, Charset charset) {
+        this(util, url, charset, CONNECT_TIMEOUT_MILLIS, READ_TIMEOUT_MILLIS);
+    }
+
+    HttpURLResource(ResourceUtil util, URL url, Charset charset,
+            int connectTimeoutMillis, int readTimeoutMillis) {
+        this.util = util;
+        this.url = url;
+        this.charset = charset;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public int read(CharBuffer cb) throws IOException {
+        return this.session.read(cb);
+    }
+
+    @Override
+    public Reader openStream() throws IOException {
+        final Response current = serve();
+        final Charset cs = this.charset != null
+                ? this.charset
+                : current.charset != null
+                        ? current.charset
+                        : Charset.defaultCharset();
+        return this.util.newReader(new ByteArrayInputStream(current.body), cs);
+    }
+
+    @Override
+    public InputStream openBinaryStream() throws IOException {
+        return new ByteArrayInputStream(serve().body);
+    }
+
+    @Override
+    public long writeTo(OutputStream out) throws IOException {
+        checkArgument(out != null);
+        final byte[] body = serve().body;
+        out.write(body);
+        return body.length;
+    }
+
+    @Override
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        checkArgument(channel != null);
+        return this.util.write(ByteBuffer.wrap(serve().body), channel);
+    }
+
+    @Override
+    public long getLastModifiedTime() throws IOException {
+        synchronized (this) {
+            if (this.served) {
+                this.served = false;
+                return this.response.lastModified;
+            }
+        }
+        final boolean received = revalidate();
+        synchronized (this) {
+            if (received) {
+                this.unserved = true;
+            }
+            return this.response.lastModified;
+        }
+    }
+
+    private Response serve() throws IOException {
+        synchronized (this) {
+            if (this.unserved) {
+                this.unserved = false;
+                this.served = true;
+                return this.response;
+            }
+        }
+        revalidate();
+        synchronized (this) {
+            this.unserved = false;
+            this.served = true;
+            return this.response;
+        }
+    }
+
+    // returns whether new content has been received
+    private boolean revalidate() throws IOException {
+        final CompletableFuture<Boolean> current;
+        final boolean issue;
+        final Response previous;
+        synchronized (this) {
+            issue = this.request == null;
+            if (issue) {
+                this.request = new CompletableFuture<>();
+            }
+            current = this.request;
+            previous = this.response;
+        }
+        if (!issue) {
+            return await(current);
+        }
+
+        try {
+            final Response received = fetch(previous);
+            synchronized (this) {
+                if (received != null) {
+                    this.response = received;
+                }
+                this.request = null;
+            }
+            current.complete(received != null);
+            return received != null;
+        } catch (final IOException | RuntimeException e) {
+            synchronized (this) {
+                this.request = null;
+            }
+            current.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static boolean await(CompletableFuture<Boolean> request)
+            throws IOException {
+        try {
+            return request.join();
+        } catch (final CompletionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    // issues a request without holding the lock. null if the content has not been
+    // modified since the previous response
+    private Response fetch(Response previous) throws IOException {
+        final HttpURLConnection connection = this.util.openConnection(this.url);
+        connection.setConnectTimeout(this.connectTimeoutMillis);
+        connection.setReadTimeout(this.readTimeoutMillis);
+        if (previous != null) {
+            if (previous.etag != null) {
+                connection.setRequestProperty("If-None-Match", previous.etag);
+            }
+            if (previous.lastModifiedHeader != null) {
+                connection.setRequestProperty("If-Modified-Since",
+                        previous.lastModifiedHeader);
+            }
+        }
+
+        if (previous != null
+                && connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return null;
+        }
+
+        final byte[] body;
+        try (InputStream in = connection.getInputStream()) {
+            body = ByteStreams.toByteArray(in);
+        }
+        final long reported = connection.getLastModified() == 0
+                ? System.currentTimeMillis()
+                : connection.getLastModified();
+        // new content must always appear modified, even if the server reports the
+        // same Last-Modified header, for example when only the ETag changed
+        final long lastModified = previous == null
+                ? reported
+                : Math.max(reported, previous.lastModified + 1);
+        return new Response(body,
+                connection.getHeaderField("ETag"),
+                connection.getHeaderField("Last-Modified"),
+                lastModified,
+                this.util.getCharset(connection.getContentType()));
+    }
+}
@@ -1,48 +1,108 @@
 package de.skuzzle.inject.conf;
 
-import static com.google.common.base.Preconditions.checkArgument;
-
 import java.io.IOException;
 import java.io.Reader;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
+import com.google.common.io.CharStreams;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
 import com.google.inject.ProvisionException;
 
+/**
+ * Creates objects from json content. The {@link Gson} instance is created only once
+ * from the builder which has been passed to the constructor and is then shared by all
+ * invocations, so Gson can reuse the type adapters it has created.
+ * <p>
+ * Interfaces are bound by streaming over the json content and only retaining the
+ * members which are accessible through the interface's getters. In <em>lazy</em>
+ * mode, the content is only indexed and values are parsed when their getter is
+ * first called.
+ * </p>
+ *
+ * @author Simon Taddiken
+ */
 class JsonContentType implements TextContentType {
 
     private final BeanUtil beanUtil;
-    private final GsonBuilder builder;
+    private final Gson gson;
+    private final JsonSchemaReader schemaReader;
+    // types which will be created by this instance
+    private final Set<Class<?>> preparedTypes;
+    private final boolean lazy;
 
-    JsonContentType(BeanUtil beanUtil, GsonBuilder builder) {
+    JsonContentType(BeanUtil beanUtil, GsonBuilder builder, boolean lazy) {
         this.beanUtil = beanUtil;
-        this.builder = builder;
+        this.gson = builder.create();
+        this.schemaReader = new JsonSchemaReader(beanUtil,
+                this.gson.getAdapter(JsonElement.class));
+        this.preparedTypes = new CopyOnWriteArraySet<>();
+        this.lazy = lazy;
+    }
+
+    /**
+     * Registers a type which will later be created by this content type. Its type
+     * adapter or interface meta data will be created by {@link #warmUp()}.
+     *
+     * @param type The target type of a binding.
+     */
+    void prepare(Class<?> type) {
+        this.preparedTypes.add(type);
+    }
+
+    /**
+     * Creates the type adapters for all types which have been passed to
+     * {@link #prepare(Class)}. This is called by Guice during injector creation so
+     * that the first provisioning does not have to pay for it.
+     */
+    @Inject
+    void warmUp() {
+        for (final Class<?> type : this.preparedTypes) {
+            if (type.isInterface()) {
+                this.beanUtil.getBeanInterface(type);
+            } else {
+                this.gson.getAdapter(type);
+            }
+        }
+    }
+
+    /**
+     * Called by Guice during injector creation to pick up the converters which
+     * have been bound in the injector.
+     *
+     * @param injector The injector.
+     */
+    @Inject
+    void contributeConverters(Injector injector) {
+        this.beanUtil.contributeConverters(injector);
     }
 
     @Override
     public <T> T createInstance(Class<T> type, TextResource resource) {
-        final Gson gson = this.builder.create();
         try (Reader reader  = resource.openStream()) {
 
             if (type.isInterface()) {
-                final JsonParser parser = new JsonParser();
-                final JsonElement element = parser.parse(reader);
-
-                checkArgument(element.isJsonObject(),
-                        "top level JSON element must be an object when binding to " +
-                        "an interface");
-
-                final InvocationHandler handler = new JsonProxy(
-                        element.getAsJsonObject(), this.beanUtil);
-                return type.cast(Proxy.newProxyInstance(type.getClassLoader(),
-                        new Class[] { type }, handler));
+                final BeanInterface beanInterface = this.beanUtil.getBeanInterface(type);
+                final JsonMembers root = this.lazy
+                        ? LazyJsonMembers.index(CharStreams.toString(reader),
+                                this.gson.getAdapter(JsonElement.class))
+                        : JsonMembers.of(this.schemaReader.read(reader, beanInterface));
+                final InvocationHandler handler = new JsonProxy(root, beanInterface,
+                        this.beanUtil);
+                final Object event = FlightRecording.beginProxyCreation();
+                final Object proxy = Proxy.newProxyInstance(type.getClassLoader(),
+                        new Class[] { type }, handler);
+                FlightRecording.proxyCreated(event, type);
+                return type.cast(proxy);
             }
 
-            return gson.fromJson(reader, type);
+            return this.gson.fromJson(reader, type);
         } catch (final IOException e) {
             throw new ProvisionException("Error while deserializing from json", e);
         }
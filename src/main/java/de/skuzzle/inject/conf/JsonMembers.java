@@ -0,0 +1,54 @@
+package de.skuzzle.inject.conf;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Read access to the members of a json object from which a {@link JsonProxy}
+ * obtains its values.
+ *
+ * @author Simon Taddiken
+ */
+interface JsonMembers {
+
+    /**
+     * Creates a view of the members of an already parsed json object.
+     *
+     * @param object The json object.
+     * @return The members.
+     */
+    static JsonMembers of(JsonObject object) {
+        return new JsonMembers() {
+
+            @Override
+            public JsonElement get(String name) {
+                return object.get(name);
+            }
+
+            @Override
+            public JsonMembers getObject(String name) {
+                final JsonElement element = object.get(name);
+                return element != null && element.isJsonObject()
+                        ? of(element.getAsJsonObject())
+                        : null;
+            }
+        };
+    }
+
+    /**
+     * Gets the value of the member with given name.
+     *
+     * @param name The name of the member.
+     * @return The value or <code>null</code> if there is no such member.
+     */
+    JsonElement get(String name);
+
+    /**
+     * Gets the members of the nested object with given name.
+     *
+     * @param name The name of the member.
+     * @return The nested object's members or <code>null</code> if there is no such
+     *         member or if its value is not an object.
+     */
+    JsonMembers getObject(String name);
+}
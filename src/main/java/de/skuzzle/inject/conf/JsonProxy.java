@@ -7,39 +7,69 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 
+/**
+ * Maps the getters of an interface to the members of a json object. Members are
+ * coerced to the getters' return types when they are first accessed. Coerced values
+ * are stored in an array indexed by the getter's slot, so proxies can safely be
+ * shared between threads without ever locking.
+ *
+ * @author Simon Taddiken
+ */
 class JsonProxy implements InvocationHandler {
 
-    private final JsonObject root;
-    private final Map<String, Object> objectMap;
+    // marks slots which have been resolved to null
+    private static final Object NULL = new Object();
+
+    private final JsonMembers members;
+    // indexed by slot. null entries have not been resolved yet
+    private final AtomicReferenceArray<Object> values;
+    private final BeanInterface beanInterface;
     private final BeanUtil beanUtil;
 
-    JsonProxy(JsonObject root, BeanUtil beanUtil) {
-        this.root = root;
+    JsonProxy(JsonMembers members, BeanInterface beanInterface, BeanUtil beanUtil) {
+        this.members = members;
+        this.beanInterface = beanInterface;
         this.beanUtil = beanUtil;
-        this.objectMap = new HashMap<>();
+        this.values = new AtomicReferenceArray<>(beanInterface.size());
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final int slot = this.beanInterface.getSlot(method);
+        if (slot < 0) {
+            return this.beanInterface.invokeObjectMethod(proxy, method, args);
+        }
         checkArgument(args == null, "mapped methods must not have parameters");
-        final String propertyName = this.beanUtil.getPropertyName(method.getName());
-        final JsonElement element = this.root.get(propertyName);
 
-        return getObject(propertyName, element, method.getReturnType(), method);
-    }
-
-    private Object getObject(String memberName, JsonElement element,
-            Class<?> targetType, Method method) {
-        return this.objectMap.computeIfAbsent(memberName,
-                key -> coerce(targetType, element, method));
+        Object value = this.values.get(slot);
+        if (value == null) {
+            final String propertyName = this.beanInterface.getPropertyName(slot);
+            final Class<?> returnType = method.getReturnType();
+            // let nested objects provide their members themselves instead of
+            // materializing them as a whole
+            final JsonMembers nested = isProxyType(returnType)
+                    ? this.members.getObject(propertyName)
+                    : null;
+            final Object coerced = nested == null
+                    ? coerce(returnType, this.members.get(propertyName), method)
+                    : createProxy(returnType, nested);
+            // first thread to resolve the slot wins, so every caller sees the same
+            // instance
+            this.values.compareAndSet(slot, null, coerced == null
+                    ? NULL
+                    : coerced);
+            value = this.values.get(slot);
+        }
+        return value == NULL
+                ? null
+                : value;
     }
 
     private Object coerce(Class<?> targetType, JsonElement element, Method method) {
@@ -102,8 +132,21 @@ class JsonProxy implements InvocationHandler {
 
     private Object coerceObject(Class<?> targetType, JsonObject object) {
         checkArgument(targetType.isInterface());
-        final InvocationHandler handler = new JsonProxy(object, this.beanUtil);
+        return createProxy(targetType, JsonMembers.of(object));
+    }
+
+    private boolean isProxyType(Class<?> type) {
+        return type.isInterface() && !Collection.class.isAssignableFrom(type);
+    }
+
+    private Object createProxy(Class<?> targetType, JsonMembers nested) {
+        final InvocationHandler handler = new JsonProxy(nested,
+                this.beanUtil.getBeanInterface(targetType), this.beanUtil);
         final ClassLoader cl = getClass().getClassLoader();
-        return Proxy.newProxyInstance(cl, new Class[] { targetType }, handler);
+        final Object event = FlightRecording.beginProxyCreation();
+        final Object proxy = Proxy.newProxyInstance(cl, new Class[] { targetType },
+                handler);
+        FlightRecording.proxyCreated(event, targetType);
+        return proxy;
     }
 }
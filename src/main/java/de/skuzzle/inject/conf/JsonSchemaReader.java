@@ -0,0 +1,120 @@
+package de.skuzzle.inject.conf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads a json document using the getters of an interface as schema. Only members
+ * which are accessed by a getter are materialized, all other members are skipped
+ * while streaming over the document. Nested objects are read the same way using the
+ * getter's return type as schema, so the resulting tree only contains what can
+ * actually be accessed through a {@link JsonProxy}.
+ *
+ * @author Simon Taddiken
+ */
+class JsonSchemaReader {
+
+    private final BeanUtil beanUtil;
+    private final TypeAdapter<JsonElement> elementAdapter;
+
+    JsonSchemaReader(BeanUtil beanUtil, TypeAdapter<JsonElement> elementAdapter) {
+        this.beanUtil = beanUtil;
+        this.elementAdapter = elementAdapter;
+    }
+
+    /**
+     * Reads the top level object from the given reader.
+     *
+     * @param reader The reader to read from.
+     * @param schema The interface which will be used to access the object.
+     * @return The object containing only the members declared by the interface.
+     * @throws IOException If reading fails or the document is malformed.
+     * @throws JsonSyntaxException If the top level object is followed by further
+     *             content.
+     */
+    public JsonObject read(Reader reader, BeanInterface schema) throws IOException {
+        final JsonReader in = new JsonReader(reader);
+        in.setLenient(true);
+        checkArgument(in.peek() == JsonToken.BEGIN_OBJECT,
+                "top level JSON element must be an object when binding to " +
+                "an interface");
+        final JsonObject result = readObject(in, schema);
+        // the lenient reader would otherwise accept multiple top level values
+        if (in.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+        return result;
+    }
+
+    private JsonObject readObject(JsonReader in, BeanInterface schema)
+            throws IOException {
+        final JsonObject result = new JsonObject();
+        in.beginObject();
+        while (in.hasNext()) {
+            final String name = in.nextName();
+            final int slot = schema.getSlot(name);
+            if (slot < 0) {
+                in.skipValue();
+            } else {
+                final Method getter = schema.getGetter(slot);
+                result.add(name, readValue(in, getter.getReturnType(), getter));
+            }
+        }
+        in.endObject();
+        return result;
+    }
+
+    private JsonElement readValue(JsonReader in, Class<?> targetType, Method method)
+            throws IOException {
+        switch (in.peek()) {
+        case BEGIN_OBJECT:
+            if (targetType.isInterface()
+                    && !Collection.class.isAssignableFrom(targetType)) {
+                return readObject(in, this.beanUtil.getBeanInterface(targetType));
+            }
+            break;
+        case BEGIN_ARRAY:
+            final Class<?> elementType = getElementType(targetType, method);
+            if (elementType != null) {
+                return readArray(in, elementType, method);
+            }
+            break;
+        default:
+            break;
+        }
+        return this.elementAdapter.read(in);
+    }
+
+    private JsonArray readArray(JsonReader in, Class<?> elementType, Method method)
+            throws IOException {
+        final JsonArray result = new JsonArray();
+        in.beginArray();
+        while (in.hasNext()) {
+            result.add(readValue(in, elementType, method));
+        }
+        in.endArray();
+        return result;
+    }
+
+    // same element types as used by JsonProxy when coercing arrays
+    private Class<?> getElementType(Class<?> targetType, Method method) {
+        if (targetType.isArray()) {
+            return targetType.getComponentType();
+        } else if (Collection.class.isAssignableFrom(targetType)) {
+            return this.beanUtil.getReturnTypeParameter(method);
+        }
+        return null;
+    }
+}
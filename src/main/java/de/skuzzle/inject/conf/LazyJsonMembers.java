@@ -0,0 +1,399 @@
+package de.skuzzle.inject.conf;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.io.CharSource;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Provides the members of a json object by indexing the raw json text. Creating the
+ * index only records the position of every member's value within the text. Values
+ * are parsed when they are requested and nested objects are indexed the same way
+ * when they are first requested. Thus, syntax errors within a value are only
+ * detected when the value is accessed.
+ * <p>
+ * The index does not copy any part of the document. All indexes of a document,
+ * including those of nested objects, share the document's text and only keep the
+ * offsets of their unresolved members. Resolved members replace their offsets with
+ * the parsed value or, for nested objects, with their own index. Once every member
+ * which has been indexed is resolved, the text is released.
+ * </p>
+ * <p>
+ * Besides strict json, the index understands the most common lenient extensions
+ * that are also accepted by Gson: unquoted or single quoted names, <code>=</code>
+ * and <code>=&gt;</code> as name separators, <code>;</code> as value separator and
+ * comments.
+ * </p>
+ *
+ * @author Simon Taddiken
+ */
+final class LazyJsonMembers implements JsonMembers {
+
+    // the text shared by all indexes of a document
+    private static final class Source {
+        // null once every indexed member has been resolved
+        private volatile String json;
+        private final AtomicInteger unresolved;
+
+        private Source(String json, int members) {
+            this.json = members == 0
+                    ? null
+                    : json;
+            this.unresolved = new AtomicInteger(members);
+        }
+
+        // members must be added before they are published and removed after they
+        // have been resolved, so the count never drops to 0 prematurely
+        private void update(int delta) {
+            if (this.unresolved.addAndGet(delta) == 0) {
+                this.json = null;
+            }
+        }
+    }
+
+    // position of an unresolved member's value within the source
+    private static final class Span {
+        private final int start;
+        private final int end;
+
+        private Span(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final Source source;
+    private final TypeAdapter<JsonElement> elementAdapter;
+    // values are the Span of a member, its parsed JsonElement or the
+    // LazyJsonMembers of a nested object
+    private final ConcurrentMap<String, Object> members;
+
+    private LazyJsonMembers(Source source, TypeAdapter<JsonElement> elementAdapter,
+            ConcurrentMap<String, Object> members) {
+        this.source = source;
+        this.elementAdapter = elementAdapter;
+        this.members = members;
+    }
+
+    /**
+     * Indexes the top level object of the given json text.
+     *
+     * @param json The json text.
+     * @param elementAdapter Adapter for parsing values.
+     * @return The members of the top level object.
+     * @throws IllegalArgumentException If the top level element is not an object.
+     * @throws JsonSyntaxException If the top level object is malformed or if it is
+     *             followed by further content.
+     */
+    static LazyJsonMembers index(String json, TypeAdapter<JsonElement> elementAdapter) {
+        final Scanner scanner = new Scanner(json, 0);
+        scanner.skipWhitespace();
+        if (!scanner.at('{')) {
+            throw new IllegalArgumentException("top level JSON element must be an " +
+                "object when binding to an interface");
+        }
+        final ConcurrentMap<String, Object> members = scanner.indexObject();
+        // reject multiple top level values like the streaming reader does
+        scanner.skipWhitespace();
+        if (scanner.pos < json.length()) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+        return new LazyJsonMembers(new Source(json, members.size()), elementAdapter,
+                members);
+    }
+
+    @Override
+    public JsonElement get(String name) {
+        while (true) {
+            final Object member = this.members.get(name);
+            if (member == null) {
+                return null;
+            } else if (member instanceof LazyJsonMembers) {
+                return ((LazyJsonMembers) member).toJsonObject();
+            } else if (!(member instanceof Span)) {
+                return (JsonElement) member;
+            }
+
+            final String json = this.source.json;
+            if (json == null) {
+                // the member has been resolved concurrently
+                continue;
+            }
+            final Span span = (Span) member;
+            final JsonElement element = parse(name, json, span);
+            if (this.members.replace(name, span, element)) {
+                this.source.update(-1);
+            }
+            return element;
+        }
+    }
+
+    private JsonElement parse(String name, String json, Span span) {
+        final CharBuffer value = CharBuffer.wrap(json, span.start, span.end);
+        try {
+            final JsonReader reader = new JsonReader(CharSource.wrap(value).openStream());
+            reader.setLenient(true);
+            return this.elementAdapter.read(reader);
+        } catch (final IOException e) {
+            throw new JsonSyntaxException(String.format(
+                    "Malformed value of member '%s' at offset %d", name, span.start), e);
+        }
+    }
+
+    // materializes the remaining members if an object is also requested as a whole
+    private JsonObject toJsonObject() {
+        final JsonObject result = new JsonObject();
+        for (final String name : this.members.keySet()) {
+            result.add(name, get(name));
+        }
+        return result;
+    }
+
+    @Override
+    public JsonMembers getObject(String name) {
+        while (true) {
+            final Object member = this.members.get(name);
+            if (member == null) {
+                return null;
+            } else if (member instanceof LazyJsonMembers) {
+                return (LazyJsonMembers) member;
+            } else if (!(member instanceof Span)) {
+                final JsonElement element = (JsonElement) member;
+                return element.isJsonObject()
+                        ? JsonMembers.of(element.getAsJsonObject())
+                        : null;
+            }
+
+            final String json = this.source.json;
+            if (json == null) {
+                continue;
+            }
+            final Span span = (Span) member;
+            if (json.charAt(span.start) != '{') {
+                return null;
+            }
+            final LazyJsonMembers nested = new LazyJsonMembers(this.source,
+                    this.elementAdapter, new Scanner(json, span.start).indexObject());
+            final int added = nested.members.size();
+            this.source.update(added);
+            if (this.members.replace(name, span, nested)) {
+                this.source.update(-1);
+                return nested;
+            }
+            // resolved concurrently
+            this.source.update(-added);
+        }
+    }
+
+    private static final class Scanner {
+        private final String json;
+        private int pos;
+
+        private Scanner(String json, int pos) {
+            this.json = json;
+            this.pos = pos;
+        }
+
+        private boolean at(char c) {
+            return this.pos < this.json.length() && this.json.charAt(this.pos) == c;
+        }
+
+        private char current() {
+            if (this.pos >= this.json.length()) {
+                throw syntaxError("Unexpected end of document");
+            }
+            return this.json.charAt(this.pos);
+        }
+
+        private JsonSyntaxException syntaxError(String message) {
+            return new JsonSyntaxException(String.format("%s at offset %d", message,
+                    this.pos));
+        }
+
+        // expects to be positioned at the opening brace of an object
+        private ConcurrentMap<String, Object> indexObject() {
+            final ConcurrentMap<String, Object> result = new ConcurrentHashMap<>();
+            ++this.pos;
+            skipWhitespace();
+            if (at('}')) {
+                ++this.pos;
+                return result;
+            }
+            while (true) {
+                final String name = readName();
+                skipWhitespace();
+                skipNameSeparator();
+                skipWhitespace();
+                final int start = this.pos;
+                skipValue();
+                result.put(name, new Span(start, this.pos));
+                skipWhitespace();
+
+                final char c = current();
+                ++this.pos;
+                if (c == '}') {
+                    return result;
+                } else if (c != ',' && c != ';') {
+                    --this.pos;
+                    throw syntaxError("Expected ',' or '}'");
+                }
+                skipWhitespace();
+            }
+        }
+
+        private String readName() {
+            final char c = current();
+            final int start = this.pos;
+            if (c == '"' || c == '\'') {
+                skipString(c);
+                final String quoted = this.json.substring(start, this.pos);
+                return quoted.indexOf('\\') < 0
+                        ? quoted.substring(1, quoted.length() - 1)
+                        : unescape(quoted);
+            }
+            skipLiteral();
+            if (start == this.pos) {
+                throw syntaxError("Expected name");
+            }
+            return this.json.substring(start, this.pos);
+        }
+
+        private String unescape(String quoted) {
+            final JsonReader reader = new JsonReader(new StringReader(quoted));
+            reader.setLenient(true);
+            try {
+                return reader.nextString();
+            } catch (final IOException e) {
+                throw new JsonSyntaxException(e);
+            }
+        }
+
+        private void skipNameSeparator() {
+            final char c = current();
+            if (c == ':') {
+                ++this.pos;
+            } else if (c == '=') {
+                ++this.pos;
+                if (at('>')) {
+                    ++this.pos;
+                }
+            } else {
+                throw syntaxError("Expected ':'");
+            }
+        }
+
+        private void skipValue() {
+            final char c = current();
+            if (c == '{' || c == '[') {
+                skipNested();
+            } else if (c == '"' || c == '\'') {
+                skipString(c);
+            } else {
+                final int start = this.pos;
+                skipLiteral();
+                if (start == this.pos) {
+                    throw syntaxError("Expected value");
+                }
+            }
+        }
+
+        // skips a complete object or array including all nested values
+        private void skipNested() {
+            int depth = 0;
+            do {
+                final char c = current();
+                if (c == '{' || c == '[') {
+                    ++depth;
+                    ++this.pos;
+                } else if (c == '}' || c == ']') {
+                    --depth;
+                    ++this.pos;
+                } else if (c == '"' || c == '\'') {
+                    skipString(c);
+                } else if (!skipComment()) {
+                    ++this.pos;
+                }
+            } while (depth > 0);
+        }
+
+        private void skipString(char quote) {
+            ++this.pos;
+            while (true) {
+                final char c = current();
+                if (c == '\\') {
+                    this.pos += 2;
+                } else {
+                    ++this.pos;
+                    if (c == quote) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        // skips unquoted names, numbers and literals like true, false and null
+        private void skipLiteral() {
+            while (this.pos < this.json.length()) {
+                switch (this.json.charAt(this.pos)) {
+                case '/':
+                case '\\':
+                case ';':
+                case '#':
+                case '=':
+                case '{':
+                case '}':
+                case '[':
+                case ']':
+                case ':':
+                case ',':
+                case ' ':
+                case '\t':
+                case '\f':
+                case '\r':
+                case '\n':
+                    return;
+                default:
+                    ++this.pos;
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (this.pos < this.json.length()) {
+                final char c = this.json.charAt(this.pos);
+                if (c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n') {
+                    ++this.pos;
+                } else if (!skipComment()) {
+                    return;
+                }
+            }
+        }
+
+        private boolean skipComment() {
+            if (at('#') || this.json.startsWith("//", this.pos)) {
+                final int end = this.json.indexOf('\n', this.pos);
+                this.pos = end < 0
+                        ? this.json.length()
+                        : end + 1;
+                return true;
+            } else if (this.json.startsWith("/*", this.pos)) {
+                final int end = this.json.indexOf("*/", this.pos + 2);
+                if (end < 0) {
+                    throw syntaxError("Unterminated comment");
+                }
+                this.pos = end + 2;
+                return true;
+            }
+            return false;
+        }
+    }
+}
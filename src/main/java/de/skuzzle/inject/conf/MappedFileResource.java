@@ -0,0 +1,107 @@
+package de.skuzzle.inject.conf;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Resource which maps a file into memory. Streams obtained from this resource are
+ * read directly from the mapped region, so reading the resource does not copy the
+ * file into heap buffers. The file is only mapped again if its modification date
+ * changed. As the mapping is shared, the file should not be truncated while it is
+ * bound.
+ *
+ * @author Simon Taddiken
+ */
+final class MappedFileResource implements TextResource {
+
+    private static final class Mapping {
+        private final ByteBuffer buffer;
+        private final long lastModified;
+
+        private Mapping(ByteBuffer buffer, long lastModified) {
+            this.buffer = buffer;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final Path path;
+    private final ResourceUtil util;
+    private final Charset charset;
+    private volatile Mapping mapping;
+    private final ReaderSession session = new ReaderSession(this);
+
+    MappedFileResource(ResourceUtil util, Path path, Charset charset) {
+        this.util = util;
+        this.path = path;
+        this.charset = charset;
+    }
+
+    /**
+     * Gets a new read only view of the mapped file content. The file will be mapped
+     * again if it has been modified since it was last mapped.
+     *
+     * @return The content.
+     * @throws IOException If mapping the file fails.
+     */
+    ByteBuffer getContent() throws IOException {
+        final long lastModified = this.util.getLastModifiedTime(this.path);
+        Mapping current = this.mapping;
+        if (current == null || current.lastModified != lastModified) {
+            synchronized (this) {
+                current = this.mapping;
+                if (current == null || current.lastModified != lastModified) {
+                    current = new Mapping(this.util.map(this.path), lastModified);
+                    this.mapping = current;
+                }
+            }
+        }
+        return current.buffer.duplicate();
+    }
+
+    @Override
+    public long writeTo(OutputStream out) throws IOException {
+        checkArgument(out != null);
+        return this.util.write(getContent(), Channels.newChannel(out));
+    }
+
+    @Override
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        checkArgument(channel != null);
+        return this.util.transferFrom(this.path, channel);
+    }
+
+    @Override
+    public int read(CharBuffer cb) throws IOException {
+        return this.session.read(cb);
+    }
+
+    @Override
+    public long getLastModifiedTime() throws IOException {
+        return this.util.getLastModifiedTime(this.path);
+    }
+
+    @Override
+    public Reader openStream() throws IOException {
+        // same default as used by NioResource
+        final Charset cs = this.charset == null
+                ? StandardCharsets.UTF_8
+                : this.charset;
+        return this.util.newReader(openBinaryStream(), cs);
+    }
+
+    @Override
+    public InputStream openBinaryStream() throws IOException {
+        return new ByteBufferInputStream(getContent());
+    }
+}
@@ -0,0 +1,37 @@
+package de.skuzzle.inject.conf;
+
+/**
+ * Measures a single event which has been started by {@link BindingMetrics} or
+ * {@link ContentMetrics}. The elapsed time is measured for the bound
+ * {@link ResourceMetrics}, while the Java Flight Recorder measures its events
+ * itself.
+ *
+ * @author Simon Taddiken
+ */
+final class Measurement {
+
+    private final boolean timed;
+    private final long start;
+    // flight recorder event which has been begun, null if it is not recorded
+    private final Object event;
+
+    Measurement(boolean timed, Object event) {
+        this.timed = timed;
+        this.start = timed
+                ? System.nanoTime()
+                : 0;
+        this.event = event;
+    }
+
+    boolean isTimed() {
+        return this.timed;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - this.start;
+    }
+
+    Object getEvent() {
+        return this.event;
+    }
+}
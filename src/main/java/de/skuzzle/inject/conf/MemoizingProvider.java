@@ -0,0 +1,77 @@
+package de.skuzzle.inject.conf;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import javax.inject.Provider;
+
+import com.google.inject.ProvisionException;
+
+/**
+ * Provider for bindings of buffered resources which only re-creates its object if
+ * the buffered content of the resource has changed since the last provisioning.
+ *
+ * @author Simon Taddiken
+ * @param <T> Type of the provided object.
+ */
+final class MemoizingProvider<T> implements Provider<T> {
+
+    private static final class Memo<T> {
+        private final long version;
+        private final T value;
+
+        Memo(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+
+    private final Supplier<CachedTextResource> resource;
+    private final Provider<T> delegate;
+    private final BindingMetrics metrics;
+    private volatile Memo<T> memo;
+
+    MemoizingProvider(CachedTextResource resource, Provider<T> delegate) {
+        this(() -> resource, delegate, BindingMetrics.NONE);
+    }
+
+    MemoizingProvider(Supplier<CachedTextResource> resource, Provider<T> delegate,
+            BindingMetrics metrics) {
+        this.resource = resource;
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public T get() {
+        final long version = currentVersion();
+        final Memo<T> current = this.memo;
+        if (current != null && current.version == version) {
+            this.metrics.instanceReused();
+            return current.value;
+        }
+
+        synchronized (this) {
+            final Memo<T> recheck = this.memo;
+            if (recheck != null && recheck.version == version) {
+                this.metrics.instanceReused();
+                return recheck.value;
+            }
+            // version has been obtained before creating the object, so a concurrent
+            // refresh will at worst cause one needless re-creation
+            final T value = this.delegate.get();
+            this.memo = new Memo<>(version, value);
+            return value;
+        }
+    }
+
+    private long currentVersion() {
+        final CachedTextResource current = this.resource.get();
+        try {
+            return current.getVersion();
+        } catch (final IOException e) {
+            throw new ProvisionException(String.format(
+                    "Error while checking '%s' for changes", current), e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package de.skuzzle.inject.conf;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Reports the loads of a resource which is not cached to the metrics of its
+ * binding. Cached resources report their loads themselves, whereas the content of
+ * an uncached resource is read by the content type whenever an object is created.
+ * The load of a stream is measured from opening it until it is closed and its size
+ * is the number of characters or bytes which have been read from it.
+ *
+ * @author Simon Taddiken
+ */
+final class MeteredTextResource implements TextResource {
+
+    private final TextResource wrapped;
+    private final BindingMetrics metrics;
+    private final ReaderSession session = new ReaderSession(this);
+
+    MeteredTextResource(TextResource wrapped, BindingMetrics metrics) {
+        this.wrapped = wrapped;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Reader openStream() throws IOException {
+        final Measurement opening = this.metrics.start();
+        final Reader reader = this.wrapped.openStream();
+        this.metrics.resourceOpened(opening);
+        return new MeteredReader(reader, this.metrics.startLoad());
+    }
+
+    @Override
+    public InputStream openBinaryStream() throws IOException {
+        final Measurement opening = this.metrics.start();
+        final InputStream stream = this.wrapped.openBinaryStream();
+        this.metrics.resourceOpened(opening);
+        return new MeteredInputStream(stream, this.metrics.startLoad());
+    }
+
+    @Override
+    public long writeTo(OutputStream out) throws IOException {
+        final Measurement loading = this.metrics.startLoad();
+        final long size = this.wrapped.writeTo(out);
+        this.metrics.resourceRead(size, loading);
+        return size;
+    }
+
+    @Override
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        final Measurement loading = this.metrics.startLoad();
+        final long size = this.wrapped.writeTo(channel);
+        this.metrics.resourceRead(size, loading);
+        return size;
+    }
+
+    @Override
+    public int read(CharBuffer cb) throws IOException {
+        return this.session.read(cb);
+    }
+
+    @Override
+    public long getLastModifiedTime() throws IOException {
+        return this.wrapped.getLastModifiedTime();
+    }
+
+    @Override
+    public String toString() {
+        return this.wrapped.toString();
+    }
+
+    private final class MeteredReader extends FilterReader {
+
+        private final Measurement loading;
+        private long size;
+        private boolean closed;
+
+        private MeteredReader(Reader in, Measurement loading) {
+            super(in);
+            this.loading = loading;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int c = super.read();
+            if (c >= 0) {
+                ++this.size;
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            final int count = super.read(cbuf, off, len);
+            if (count > 0) {
+                this.size += count;
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!this.closed) {
+                    this.closed = true;
+                    MeteredTextResource.this.metrics.resourceRead(this.size,
+                            this.loading);
+                }
+            }
+        }
+    }
+
+    private final class MeteredInputStream extends FilterInputStream {
+
+        private final Measurement loading;
+        private long size;
+        private boolean closed;
+
+        private MeteredInputStream(InputStream in, Measurement loading) {
+            super(in);
+            this.loading = loading;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                ++this.size;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int count = super.read(b, off, len);
+            if (count > 0) {
+                this.size += count;
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!this.closed) {
+                    this.closed = true;
+                    MeteredTextResource.this.metrics.resourceRead(this.size,
+                            this.loading);
+                }
+            }
+        }
+    }
+}
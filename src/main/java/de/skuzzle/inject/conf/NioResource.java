@@ -7,6 +7,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 
@@ -15,6 +16,7 @@ final class NioResource implements TextResource {
     private final Path path;
     private final ResourceUtil util;
     private final Charset charset;
+    private final ReaderSession session = new ReaderSession(this);
 
     NioResource(ResourceUtil util, Path path, Charset charset) {
         this.util = util;
@@ -28,9 +30,15 @@ final class NioResource implements TextResource {
         return this.util.writeFromSource(this, out);
     }
 
+    @Override
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        checkArgument(channel != null);
+        return this.util.transferFrom(this.path, channel);
+    }
+
     @Override
     public int read(CharBuffer cb) throws IOException {
-        return this.util.readFromSource(this, cb);
+        return this.session.read(cb);
     }
 
     @Override
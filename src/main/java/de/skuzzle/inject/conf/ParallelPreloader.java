@@ -0,0 +1,87 @@
+package de.skuzzle.inject.conf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import javax.inject.Provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Binding;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.ProvisionException;
+import com.google.inject.Scopes;
+import com.google.inject.spi.Message;
+import com.google.inject.spi.ProviderInstanceBinding;
+
+/**
+ * Reads and parses all singleton resource bindings of an injector in parallel. The
+ * preloading is triggered by Guice injecting this object while the injector is
+ * being created. The created objects are handed to the singleton scope when it
+ * requests them for the first time. If preloading fails for any binding, all
+ * failures are reported together, which makes creating the injector fail.
+ *
+ * @author Simon Taddiken
+ */
+final class ParallelPreloader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelPreloader.class);
+
+    private final ForkJoinPool pool;
+
+    ParallelPreloader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Inject
+    void preload(Injector injector) {
+        final List<Binding<?>> bindings = new ArrayList<>();
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (final Binding<?> binding : injector.getBindings().values()) {
+            final ResourceProvider<?> provider = getResourceProvider(binding);
+            if (provider != null && Scopes.isSingleton(binding)) {
+                bindings.add(binding);
+                tasks.add(this.pool.submit(provider::preload));
+            }
+        }
+
+        final List<Message> errors = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); ++i) {
+            final Binding<?> binding = bindings.get(i);
+            try {
+                tasks.get(i).get();
+            } catch (final ExecutionException e) {
+                final String message = String.format(
+                        "Error preloading resource binding for %s", binding.getKey());
+                errors.add(new Message(Collections.singletonList(binding.getSource()),
+                        message, e.getCause()));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProvisionException("Interrupted while preloading resources",
+                        e);
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new ProvisionException(errors);
+        }
+        LOG.debug("Preloaded {} resource bindings", tasks.size());
+    }
+
+    // null if the binding has not been created by the Resources DSL
+    private static ResourceProvider<?> getResourceProvider(Binding<?> binding) {
+        if (binding instanceof ProviderInstanceBinding<?>) {
+            final Provider<?> provider = ((ProviderInstanceBinding<?>) binding)
+                    .getUserSuppliedProvider();
+            if (provider instanceof ResourceProvider<?>) {
+                return (ResourceProvider<?>) provider;
+            }
+        }
+        return null;
+    }
+}
@@ -12,6 +12,8 @@ import java.util.Properties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.inject.Inject;
+import com.google.inject.Injector;
 import com.google.inject.ProvisionException;
 
 class PropertiesContentType implements TextContentType {
@@ -24,6 +26,17 @@ class PropertiesContentType implements TextContentType {
         this.beanUtil = beanUtil;
     }
 
+    /**
+     * Called by Guice during injector creation to pick up the converters which
+     * have been bound in the injector.
+     *
+     * @param injector The injector.
+     */
+    @Inject
+    void contributeConverters(Injector injector) {
+        this.beanUtil.contributeConverters(injector);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> T createInstance(Class<T> type, TextResource resource) {
@@ -36,8 +49,12 @@ class PropertiesContentType implements TextContentType {
         }
 
         checkArgument(type.isInterface(), "type must be an interface");
-        final InvocationHandler handler = new PropertiesProxy(props, this.beanUtil);
-        return (T) Proxy.newProxyInstance(cl, new Class[] { type }, handler);
+        final InvocationHandler handler = new PropertiesProxy(props,
+                this.beanUtil.getBeanInterface(type), this.beanUtil);
+        final Object event = FlightRecording.beginProxyCreation();
+        final Object proxy = Proxy.newProxyInstance(cl, new Class[] { type }, handler);
+        FlightRecording.proxyCreated(event, type);
+        return (T) proxy;
     }
 
     private static Properties getProperties(TextResource resource) {
@@ -6,28 +6,54 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.Map;
 
+/**
+ * Maps the getters of an interface to properties. All values are looked up and
+ * coerced to the getters' return types when the proxy is created, so missing
+ * properties or unconvertible values are reported immediately and calling a getter
+ * is a simple array access.
+ *
+ * @author Simon Taddiken
+ */
 class PropertiesProxy implements InvocationHandler {
 
-    private final BeanUtil util;
-    private final Map<Object, Object> properties;
+    private final BeanInterface beanInterface;
+    // indexed by slot. null for methods with parameters
+    private final Object[] values;
 
-    PropertiesProxy(Map<Object, Object> properties, BeanUtil beanUtil) {
-        this.properties = properties;
-        this.util = beanUtil;
+    PropertiesProxy(Map<Object, Object> properties, BeanInterface beanInterface,
+            BeanUtil beanUtil) {
+        this.beanInterface = beanInterface;
+        this.values = new Object[beanInterface.size()];
+        for (int slot = 0; slot < this.values.length; ++slot) {
+            final Method getter = beanInterface.getGetter(slot);
+            if (getter.getParameterCount() == 0) {
+                final String propertyName = beanInterface.getPropertyName(slot);
+                this.values[slot] = coerce(properties, propertyName,
+                        getter.getReturnType(), beanUtil);
+            }
+        }
     }
 
-    @Override
-    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        checkArgument(args == null, "mapped methods must not have parameters");
-        final String propertyName = this.util.getPropertyName(method.getName());
-        final Object result = this.properties.get(propertyName);
+    private static Object coerce(Map<Object, Object> properties, String propertyName,
+            Class<?> targetType, BeanUtil beanUtil) {
+        final Object result = properties.get(propertyName);
         if (result == null) {
             throw new IllegalStateException(String.format("Key '%s' not found",
                     propertyName));
         }
         if (result instanceof String) {
-            return this.util.coerceType(result.toString(), method.getReturnType());
+            return beanUtil.coerceType(result.toString(), targetType);
         }
         return result;
     }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final int slot = this.beanInterface.getSlot(method);
+        if (slot < 0) {
+            return this.beanInterface.invokeObjectMethod(proxy, method, args);
+        }
+        checkArgument(args == null, "mapped methods must not have parameters");
+        return this.values[slot];
+    }
 }
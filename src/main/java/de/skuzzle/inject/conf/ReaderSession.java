@@ -0,0 +1,75 @@
+package de.skuzzle.inject.conf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Reads a {@link TextResource} incrementally through the {@link Readable}
+ * interface. The session keeps a reader open between successive calls to
+ * {@link #read(CharBuffer)}: the first call opens a new reader and every further
+ * call continues where the previous one stopped. Once the end of the resource has
+ * been reached, <code>-1</code> is returned and the reader is closed, so that the
+ * next call starts reading the resource from the beginning again.
+ * <p>
+ * Sessions are obtained from {@link TextResource#newSession()} and are owned by the
+ * caller. A caller which stops reading before the end of the resource must
+ * {@link #close() close} its session in order to release the underlying reader.
+ * </p>
+ *
+ * @author Simon Taddiken
+ * @since 0.4.0
+ */
+public final class ReaderSession implements Readable, Closeable {
+
+    private final TextResource resource;
+    // null if no read is in progress
+    private Reader reader;
+
+    ReaderSession(TextResource resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * Reads the next chunk of the resource into the given buffer.
+     *
+     * @param buffer The buffer to read into.
+     * @return The number of chars read or <code>-1</code> if the end of the resource
+     *         has been reached.
+     * @throws IOException If reading fails. The session is reset in that case.
+     */
+    @Override
+    public synchronized int read(CharBuffer buffer) throws IOException {
+        if (this.reader == null) {
+            this.reader = this.resource.openStream();
+        }
+
+        final int count;
+        try {
+            count = this.reader.read(buffer);
+        } catch (final IOException e) {
+            close();
+            throw e;
+        }
+        if (count < 0) {
+            close();
+        }
+        return count;
+    }
+
+    /**
+     * Closes the currently open reader, if any. The next call to
+     * {@link #read(CharBuffer)} will start from the beginning of the resource.
+     *
+     * @throws IOException If closing the reader fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        final Reader current = this.reader;
+        this.reader = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package de.skuzzle.inject.conf;
+
+import java.io.IOException;
+
+import com.google.inject.Key;
+
+/**
+ * Listener which is notified about the work that is performed for resource
+ * bindings. Bind an implementation within the same injector to receive the
+ * notifications for all bindings which have been created using {@link Resources}:
+ *
+ * <pre>
+ * bind(ResourceMetrics.class).to(MyTelemetryBridge.class);
+ * </pre>
+ * <p>
+ * All methods have empty default implementations, so implementors only need to
+ * override the events they are interested in. Durations are reported in
+ * nanoseconds. Methods may be called concurrently from multiple threads and from
+ * the thread which refreshes resources in background, so implementations must be
+ * thread safe and should return quickly.
+ * </p>
+ * <p>
+ * Events concerning the buffered content of cached resources are only reported
+ * for cached bindings. If multiple bindings share the same cached resource, its
+ * content events are reported for each of them.
+ * </p>
+ *
+ * @author Simon Taddiken
+ * @since 0.4.0
+ */
+public interface ResourceMetrics {
+
+    /**
+     * Called after a resource has been opened for reading its content.
+     *
+     * @param binding The binding.
+     * @param nanos Time it took to open the resource.
+     */
+    default void resourceOpened(Key<?> binding, long nanos) {}
+
+    /**
+     * Called after the content of a resource has been read.
+     *
+     * @param binding The binding.
+     * @param size Number of bytes read or, if the resource has been read as text,
+     *            the number of characters.
+     * @param nanos Time it took to read the content.
+     */
+    default void resourceRead(Key<?> binding, long size, long nanos) {}
+
+    /**
+     * Called after buffered bytes have been decoded to text.
+     *
+     * @param binding The binding.
+     * @param chars Number of decoded characters.
+     * @param nanos Time it took to decode the text.
+     */
+    default void textDecoded(Key<?> binding, long chars, long nanos) {}
+
+    /**
+     * Called after the caching strategy has been consulted whether buffered
+     * content is outdated.
+     *
+     * @param binding The binding.
+     * @param stale Whether the content is outdated and will be read again.
+     * @param nanos Time it took to check the content.
+     */
+    default void freshnessChecked(Key<?> binding, boolean stale, long nanos) {}
+
+    /**
+     * Called after outdated content has been read again.
+     *
+     * @param binding The binding.
+     * @param changed Whether the content differs from the previous content.
+     * @param nanos Time it took to read the content again.
+     */
+    default void contentRefreshed(Key<?> binding, boolean changed, long nanos) {}
+
+    /**
+     * Called when buffered content has been requested.
+     *
+     * @param binding The binding.
+     */
+    default void cacheHit(Key<?> binding) {}
+
+    /**
+     * Called when content has been requested which has not been buffered yet or
+     * which has been evicted.
+     *
+     * @param binding The binding.
+     */
+    default void cacheMiss(Key<?> binding) {}
+
+    /**
+     * Called if checking or refreshing buffered content failed.
+     *
+     * @param binding The binding.
+     * @param error The error.
+     */
+    default void refreshFailed(Key<?> binding, IOException error) {}
+
+    /**
+     * Called after an object has been created from the content of a resource.
+     *
+     * @param binding The binding.
+     * @param nanos Time it took to read and parse the content.
+     */
+    default void instanceCreated(Key<?> binding, long nanos) {}
+
+    /**
+     * Called when an object, which has previously been created from buffered
+     * content, is provided again because the content did not change.
+     *
+     * @param binding The binding.
+     */
+    default void instanceReused(Key<?> binding) {}
+
+    /**
+     * Called if creating an object from the content of a resource failed.
+     *
+     * @param binding The binding.
+     * @param error The error.
+     */
+    default void creationFailed(Key<?> binding, RuntimeException error) {}
+}
@@ -0,0 +1,40 @@
+package de.skuzzle.inject.conf;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Provider;
+
+/**
+ * Provider which is bound for every resource binding. Besides delegating to the
+ * actual provider, it allows to create an instance ahead of time which will then be
+ * returned by the next call to {@link #get()}.
+ *
+ * @author Simon Taddiken
+ * @param <T> Type of the provided objects.
+ */
+final class ResourceProvider<T> implements Provider<T> {
+
+    private final Provider<T> delegate;
+    // instance which has been created by preload() and not yet been provided
+    private final AtomicReference<T> preloaded;
+
+    ResourceProvider(Provider<T> delegate) {
+        this.delegate = delegate;
+        this.preloaded = new AtomicReference<>();
+    }
+
+    /**
+     * Creates an instance which will be returned by the next call to {@link #get()}.
+     */
+    void preload() {
+        this.preloaded.set(this.delegate.get());
+    }
+
+    @Override
+    public T get() {
+        final T instance = this.preloaded.getAndSet(null);
+        return instance == null
+                ? this.delegate.get()
+                : instance;
+    }
+}
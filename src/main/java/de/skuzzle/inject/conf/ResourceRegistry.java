@@ -0,0 +1,88 @@
+package de.skuzzle.inject.conf;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Shares cached resources between all bindings of the same resource within an
+ * injector. The registry is bound just in time as singleton, so every injector
+ * hierarchy has its own registry and unrelated injectors never share content. Cached
+ * resources are identified by the location of the wrapped resource and by all
+ * settings that influence how it is buffered. Thus, all bindings of the same
+ * resource are served from a single buffered copy and a single freshness check.
+ * Resources are only weakly referenced and are dropped from the registry once they
+ * are no longer used by any binding. All cached resources of the injector share
+ * its {@link CacheBudget} and watched files are watched by its {@link FileWatcher}.
+ *
+ * @author Simon Taddiken
+ */
+@Singleton
+class ResourceRegistry {
+
+    private final Cache<List<?>, CachedTextResource> resources;
+    private final CacheBudget budget;
+    private final FileWatcher fileWatcher;
+
+    @Inject
+    ResourceRegistry(CacheBudget budget, FileWatcher fileWatcher) {
+        this.resources = CacheBuilder.newBuilder()
+                .weakValues()
+                .build();
+        this.budget = budget;
+        this.fileWatcher = fileWatcher;
+    }
+
+    CacheBudget getBudget() {
+        return this.budget;
+    }
+
+    FileWatcher getFileWatcher() {
+        return this.fileWatcher;
+    }
+
+    /**
+     * Gets the cached resource for the given location and settings or creates it
+     * using the given factory if there is none yet.
+     *
+     * @param location Object which identifies the wrapped resource. Must implement
+     *            {@code equals} and {@code hashCode} by value.
+     * @param charset The charset of the resource. May be null.
+     * @param strategy The caching strategy or, if the factory creates a new
+     *            strategy for each resource, its type.
+     * @param compact Whether decoded text is retained.
+     * @param refreshIntervalNanos Interval for background refreshing or 0.
+     * @param factory Creates the cached resource if required.
+     * @return The shared cached resource.
+     */
+    CachedTextResource getCached(Object location, Charset charset,
+            Object strategy, boolean compact, long refreshIntervalNanos,
+            Supplier<CachedTextResource> factory) {
+        final List<?> key = Arrays.asList(location, charset, identify(strategy),
+                compact, refreshIntervalNanos);
+        try {
+            return this.resources.get(key, factory::get);
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private static Object identify(Object strategy) {
+        // built in strategies behave the same for equal resource locations
+        if (strategy instanceof TimestampCacheStrategy
+                || strategy instanceof WatchServiceCacheStrategy
+                || strategy instanceof ConstantCacheStrategy) {
+            return strategy.getClass();
+        }
+        return strategy;
+    }
+}
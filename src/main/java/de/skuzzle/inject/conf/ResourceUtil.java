@@ -1,22 +1,38 @@
 package de.skuzzle.inject.conf;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.net.HttpURLConnection;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
-import java.nio.CharBuffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import com.google.common.io.ByteStreams;
 
 class ResourceUtil {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    // copy buffers are reused per thread
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(
+            () -> ByteBuffer.allocate(BUFFER_SIZE));
+
     public long getLastModifiedTime(URL url) throws IOException {
         final URLConnection con = url.openConnection();
         if (con instanceof JarURLConnection) {
@@ -26,6 +42,12 @@ class ResourceUtil {
         }
     }
 
+    // entries of jar files which have been found by a class loader can not change
+    // because the class loader keeps the jar file opened
+    public boolean isJarEntry(URL url) {
+        return "jar".equals(url.getProtocol());
+    }
+
     public long getLastModifiedTime(Path path) throws IOException {
         return Files.getLastModifiedTime(path).toMillis();
     }
@@ -38,6 +60,29 @@ class ResourceUtil {
         return Charset.forName(cs);
     }
 
+    public HttpURLConnection openConnection(URL url) throws IOException {
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    // parses the charset parameter of a content type header. null if not present
+    public Charset getCharset(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        for (final String parameter : contentType.split(";")) {
+            final String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                final String name = trimmed.substring(8).replace("\"", "").trim();
+                try {
+                    return Charset.forName(name);
+                } catch (final IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
     public Reader newReader(Path path, Charset cs) throws IOException {
         if (cs == null) {
             return Files.newBufferedReader(path);
@@ -46,6 +91,12 @@ class ResourceUtil {
         }
     }
 
+    public ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
     public InputStream newInputStream(URL url) throws IOException {
         return url.openStream();
     }
@@ -65,17 +116,64 @@ class ResourceUtil {
         return new InputStreamReader(stream, charset);
     }
 
-    public int readFromSource(TextResource resource, CharBuffer buffer)
+    public long writeFromSource(BinaryResource resource, OutputStream target)
+            throws IOException {
+        try (InputStream in = resource.openBinaryStream()) {
+            return ByteStreams.copy(in, target);
+        }
+    }
+
+    public long writeFromSource(BinaryResource resource, WritableByteChannel target)
             throws IOException {
-        try (Reader reader = resource.openStream()) {
-            return reader.read(buffer);
+        checkBlocking(target);
+        try (InputStream in = resource.openBinaryStream();
+                ReadableByteChannel source = Channels.newChannel(in)) {
+            final ByteBuffer buffer = BUFFERS.get();
+            long total = 0;
+            buffer.clear();
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                total += write(buffer, target);
+                buffer.clear();
+            }
+            return total;
         }
     }
 
-    public long writeFromSource(BinaryResource resource, OutputStream target)
+    // copying loops rely on every write making progress, which a non-blocking
+    // channel does not guarantee
+    private static void checkBlocking(WritableByteChannel target) {
+        checkArgument(!(target instanceof SelectableChannel)
+                || ((SelectableChannel) target).isBlocking(),
+                "target channel must be in blocking mode");
+    }
+
+    public long write(ByteBuffer source, WritableByteChannel target)
             throws IOException {
-        try (InputStream in = resource.openBinaryStream()) {
-            return ByteStreams.copy(in, target);
+        checkBlocking(target);
+        long total = 0;
+        while (source.hasRemaining()) {
+            total += target.write(source);
+        }
+        return total;
+    }
+
+    public long transferFrom(Path path, WritableByteChannel target)
+            throws IOException {
+        checkBlocking(target);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                final long count = channel.transferTo(position, size - position,
+                        target);
+                if (count == 0 && position >= channel.size()) {
+                    // file has been truncated while transferring
+                    break;
+                }
+                position += count;
+            }
+            return position;
         }
     }
 }
@@ -1,16 +1,24 @@
 package de.skuzzle.inject.conf;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.io.File;
 import java.lang.annotation.Annotation;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletContext;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.inject.Binder;
+import com.google.inject.CreationException;
+import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.Singleton;
@@ -100,10 +108,77 @@ public interface Resources {
         return new DSLImpl(factory, contentTypeFactory);
     }
 
+    /**
+     * Reads and parses all resources which are bound as singleton in parallel while
+     * the injector is being created, using the {@link ForkJoinPool#commonPool()
+     * common pool}. Only resources which have been bound using {@link #bind()} are
+     * considered. If loading fails for any resource, all failures are reported
+     * together and creating the injector fails with a {@link CreationException}.
+     * Calling this method once per injector is sufficient.
+     *
+     * @param binder The binder of the injector which is being created.
+     * @since 0.4.0
+     */
+    public static void preloadInParallel(Binder binder) {
+        preloadInParallel(binder, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reads and parses all resources which are bound as singleton in parallel while
+     * the injector is being created, using the given pool. See
+     * {@link #preloadInParallel(Binder)}.
+     *
+     * @param binder The binder of the injector which is being created.
+     * @param pool The pool which reads and parses the resources.
+     * @since 0.4.0
+     */
+    public static void preloadInParallel(Binder binder, ForkJoinPool pool) {
+        checkArgument(binder != null, "binder is null");
+        checkArgument(pool != null, "pool is null");
+        binder.requestInjection(new ParallelPreloader(pool));
+    }
+
+    /**
+     * Limits the amount of content which is buffered by all cached resources of the
+     * injector which is being created. Once the budget is exceeded, the content of
+     * the least recently used resources is evicted. If no budget is set, it is taken
+     * from the system property {@value CacheStatistics#BUDGET_PROPERTY}. This
+     * method must be called at most once per injector.
+     *
+     * @param binder The binder of the injector which is being created.
+     * @param bytes The budget in bytes.
+     * @since 0.4.0
+     */
+    public static void setCacheBudget(Binder binder, long bytes) {
+        checkArgument(binder != null, "binder is null");
+        checkArgument(bytes >= 0, "budget must not be negative");
+        binder.bind(CacheBudget.class).toInstance(new CacheBudget(bytes));
+    }
+
+    /**
+     * Provides statistics about the content which is buffered by all cached
+     * resources of the given injector. See {@link CacheStatistics} for how to limit
+     * the amount of buffered content.
+     *
+     * @param injector The injector.
+     * @return The statistics.
+     * @since 0.4.0
+     */
+    public static CacheStatistics getCacheStatistics(Injector injector) {
+        checkArgument(injector != null, "injector is null");
+        return injector.getInstance(CacheStatistics.class);
+    }
+
     /**
      * Allows to choose the type of caching. This step is optional. If no caching strategy
      * is specified, the resource will not be cached at all and will be re-read every time
      * it is requested.
+     * <p>
+     * If a caching strategy is specified, the object that is created from the
+     * resource's content will be cached as well. It will only be created again if the
+     * buffered content has been refreshed. Note that this means that the same instance
+     * might be injected into different places, even if the binding is not scoped.
+     * </p>
      *
      * @author Simon Taddiken
      */
@@ -116,14 +191,45 @@ public interface Resources {
          *
          * @return Fluent interface object.
          */
-        ChooseResources changing();
+        ChooseBufferedResources changing();
+
+        /**
+         * Caches the resource content once it has been read and re-reads it in the
+         * background when the resource has changed. Change detection is based on
+         * {@link TextResource#getLastModifiedTime()} like for {@link #changing()},
+         * but the resource is checked by a background thread which is shared by all
+         * refreshed resources, so that accessing the bound object never needs to
+         * access the resource once its content has been read. The actual delay
+         * between two checks varies randomly by up to ten percent of the interval
+         * and is increased if checking the resource fails.
+         *
+         * @param interval The interval in which to check the resource.
+         * @param unit The unit of the interval.
+         * @return Fluent interface object.
+         * @since 0.4.0
+         */
+        ChooseBufferedResources refreshing(long interval, TimeUnit unit);
+
+        /**
+         * Caches the resource content once it has been read, but re-reads it when the
+         * resource has changed since the last request. Change detection is based on a
+         * {@link java.nio.file.WatchService} which is shared by all watched resources
+         * of the injector, so checking for changes does not access the file system.
+         * The file is registered once the injector is being created, but its directory
+         * must already exist when the binding is configured. This is only available
+         * for resources in the default file system.
+         *
+         * @return Fluent interface object.
+         * @since 0.4.0
+         */
+        ChooseWatchedResources watching();
 
         /**
          * Reads the resource content only once and caches it forever.
          *
          * @return Fluent interface object.
          */
-        ChooseResources constant();
+        ChooseBufferedResources constant();
 
         /**
          * Uses the given strategy for caching resource contents.
@@ -131,7 +237,49 @@ public interface Resources {
          * @param strategy The strategy to use.
          * @return Fluent interface object.
          */
-        ChooseResources cached(CachingStrategy strategy);
+        ChooseBufferedResources cached(CachingStrategy strategy);
+    }
+
+    /**
+     * Allows to further configure buffering of the resource content before specifying
+     * the resource location.
+     *
+     * @author Simon Taddiken
+     * @since 0.4.0
+     */
+    interface ChooseBufferedResources extends ChooseResources {
+
+        /**
+         * Only buffers the binary content of the resource and decodes it again whenever
+         * the text content is requested. This saves memory for large resources which
+         * are encoded in a single byte or variable length charset like ISO-8859-1 or
+         * UTF-8. This setting only has an effect if the charset of the resource is
+         * specified explicitly.
+         *
+         * @return Fluent interface object.
+         */
+        ChooseResources compact();
+    }
+
+    /**
+     * Allows to further configure buffering of the resource content before specifying
+     * the location of a watched file.
+     *
+     * @author Simon Taddiken
+     * @since 0.4.0
+     */
+    interface ChooseWatchedResources extends ChooseFileResources {
+
+        /**
+         * Only buffers the binary content of the resource and decodes it again whenever
+         * the text content is requested. This saves memory for large resources which
+         * are encoded in a single byte or variable length charset like ISO-8859-1 or
+         * UTF-8. This setting only has an effect if the charset of the resource is
+         * specified explicitly.
+         *
+         * @return Fluent interface object.
+         */
+        ChooseFileResources compact();
     }
 
     /**
@@ -139,7 +287,7 @@ public interface Resources {
      *
      * @author Simon Taddiken
      */
-    interface ChooseResources {
+    interface ChooseResources extends ChooseFileResources {
         /**
          * Specifies to load the resource from the given class path location. The resource
          * will be looked up using the current context class loader.
@@ -169,45 +317,72 @@ public interface Resources {
         ChooseContentTypeAndCharset servletResource(String path);
 
         /**
-         * Specifies to load the resource from the given file system location.
+         * Specifies to load the resource from given url. For <code>http</code> and
+         * <code>https</code> urls, the last received content is remembered and
+         * further requests are sent as conditional requests using the
+         * <code>ETag</code> and <code>Last-Modified</code> headers of the previous
+         * response.
          *
-         * @param file The resource path.
+         * @param url The resource path.
          * @return Fluent interface object.
          */
-        ChooseContentTypeAndCharset fileResource(File file);
+        ChooseContentTypeAndCharset urlResource(URL url);
 
         /**
-         * Specifies to load the resource from the given file system location (NIO
-         * version).
+         * Specifies to load the resource from given url.
          *
-         * @param path The resource path.
+         * @param url The resource path.
          * @return Fluent interface object.
          */
-        ChooseContentTypeAndCharset pathResource(Path path);
+        ChooseContentTypeAndCharset urlResource(String url);
 
         /**
-         * Specifies to load the resource from given url.
+         * Explicitly binds the given {@link TextResource} implementation.
          *
-         * @param url The resource path.
+         * @param resource The resource.
          * @return Fluent interface object.
          */
-        ChooseContentTypeAndCharset urlResource(URL url);
+        ChooseContentType resource(TextResource resource);
+    }
+
+    /**
+     * Allows to specify the location of a resource within the file system.
+     *
+     * @author Simon Taddiken
+     * @since 0.4.0
+     */
+    interface ChooseFileResources {
 
         /**
-         * Specifies to load the resource from given url.
+         * Specifies to load the resource from the given file system location.
          *
-         * @param url The resource path.
+         * @param file The resource path.
          * @return Fluent interface object.
          */
-        ChooseContentTypeAndCharset urlResource(String url);
+        ChooseContentTypeAndCharset fileResource(File file);
 
         /**
-         * Explicitly binds the given {@link TextResource} implementation.
+         * Specifies to load the resource from the given file system location (NIO
+         * version).
          *
-         * @param resource The resource.
+         * @param path The resource path.
          * @return Fluent interface object.
          */
-        ChooseContentType resource(TextResource resource);
+        ChooseContentTypeAndCharset pathResource(Path path);
+
+        /**
+         * Specifies to load the resource from the given file system location by
+         * mapping the file into memory. The content is read directly from the mapped
+         * region without being copied to the heap and the file is only mapped again
+         * if its modification date changes. This is best suited for large files
+         * which are rarely modified. The file must not be truncated while it is
+         * mapped.
+         *
+         * @param path The resource path.
+         * @return Fluent interface object.
+         * @since 0.4.0
+         */
+        ChooseContentTypeAndCharset mappedFileResource(Path path);
     }
 
     /**
@@ -289,11 +464,32 @@ public interface Resources {
          */
         ChooseTargetType containingJson(GsonBuilder builder);
 
+        /**
+         * Specifies that the resource content should be parsed lazily as json object.
+         * If the type to which the resource is bound is an interface, the resource
+         * content is only indexed when the proxy is created. The value of a json
+         * property is parsed when the respective getter is first called and nested
+         * objects are indexed the same way when they are first accessed. Thus,
+         * creating the proxy is cheap even for large documents of which only a few
+         * properties are used. On the other hand, malformed values will only be
+         * detected when they are accessed.
+         * <p>
+         * If the type to bind to is not an interface, this behaves exactly like
+         * {@link #containingJson()}.
+         * </p>
+         *
+         * @return Fluent interface object.
+         * @since 0.4.0
+         */
+        ChooseTargetType containingLazyJson();
+
         /**
          * Specifies that the resource content should be parsed as a java properties file.
          * If the type to which the resource is bound is an interface, the framework
          * automatically creates a proxy implementation which delegates all bean style
-         * getter methods to the respective property.
+         * getter methods to the respective property. All properties are looked up and
+         * converted to the getters' return types when the proxy is created, thus
+         * missing properties will already cause the provisioning to fail.
          *
          * @return Fluent interface object.
          */
@@ -415,5 +611,23 @@ public interface Resources {
          * @param binder The binder.
          */
         void using(Binder binder);
+
+        /**
+         * Publishes the fluent configuration to the {@link Binder}, but binds a
+         * {@link CompletionStage} of the configured type instead of the type itself.
+         * The key of the binding has the same annotation as the configured key. Every
+         * provisioning of the stage reads and parses the resource using the given
+         * executor, so that the injecting thread is never blocked. When the binding
+         * is scoped, the scope applies to loading the resource, thus a singleton
+         * binding reads the resource only once. If loading fails, the next
+         * provisioning within the scope loads the resource again. Every injected
+         * stage is a separate copy, so completing it does not affect other
+         * consumers.
+         *
+         * @param binder The binder.
+         * @param executor The executor which reads and parses the resource.
+         * @since 0.4.0
+         */
+        void usingAsync(Binder binder, Executor executor);
     }
 }
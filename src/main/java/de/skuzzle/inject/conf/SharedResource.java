@@ -0,0 +1,55 @@
+package de.skuzzle.inject.conf;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.inject.Provider;
+
+import com.google.inject.Inject;
+
+/**
+ * Resolves the cached resource of a single binding from the
+ * {@link ResourceRegistry} of the injector which contains the binding. Thus,
+ * resources are only shared between bindings of the same injector. The resource
+ * is resolved while the injector is being created or, if it is requested before,
+ * when it is first needed.
+ *
+ * @author Simon Taddiken
+ */
+final class SharedResource implements Supplier<CachedTextResource> {
+
+    private final Provider<ResourceRegistry> registry;
+    private final Function<ResourceRegistry, CachedTextResource> factory;
+    private final BindingMetrics metrics;
+    // null until resolved
+    private volatile CachedTextResource resource;
+
+    SharedResource(Provider<ResourceRegistry> registry,
+            Function<ResourceRegistry, CachedTextResource> factory,
+            BindingMetrics metrics) {
+        this.registry = registry;
+        this.factory = factory;
+        this.metrics = metrics;
+    }
+
+    @Inject
+    void resolve() {
+        get();
+    }
+
+    @Override
+    public CachedTextResource get() {
+        CachedTextResource result = this.resource;
+        if (result == null) {
+            synchronized (this) {
+                result = this.resource;
+                if (result == null) {
+                    result = this.factory.apply(this.registry.get());
+                    result.addMetrics(this.metrics);
+                    this.resource = result;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+package de.skuzzle.inject.conf;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.inject.Provider;
+
+import com.google.inject.BindingAnnotation;
+import com.google.inject.Key;
+import com.google.inject.util.Types;
+
+/**
+ * Asynchronously loads the object of a binding which has been published with
+ * {@link Resources.Finalize#usingAsync(com.google.inject.Binder, Executor)
+ * usingAsync}. The scope of the binding applies to instances of this class, so that
+ * all consumers within the scope share a single load of the resource.
+ * <p>
+ * Consumers never receive the shared future itself but a dependent copy, so that
+ * completing or obtruding a consumer's stage does not affect any other consumer. A
+ * load which failed is not shared any further: the next consumer starts a new one.
+ * </p>
+ * <p>
+ * Instances are bound with a {@link #newKey(Type) key} which carries a private
+ * binding annotation, so that the binding can neither be requested by users nor
+ * collide with the binding of another async resource of the same type.
+ * </p>
+ *
+ * @author Simon Taddiken
+ * @param <T> Type of the loaded object.
+ */
+final class SharedStage<T> {
+
+    private static final AtomicInteger KEYS = new AtomicInteger();
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @BindingAnnotation
+    private @interface Load {
+        int value();
+    }
+
+    private static final class LoadImpl implements Load {
+
+        private final int value;
+
+        private LoadImpl(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int value() {
+            return this.value;
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Load.class;
+        }
+
+        // equals and hashCode as specified by Annotation
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Load && ((Load) obj).value() == this.value;
+        }
+
+        @Override
+        public int hashCode() {
+            return (127 * "value".hashCode()) ^ this.value;
+        }
+
+        @Override
+        public String toString() {
+            return "@" + Load.class.getName() + "(value=" + this.value + ")";
+        }
+    }
+
+    private final Provider<T> provider;
+    private final Executor executor;
+    // guarded by 'this'
+    private CompletableFuture<T> shared;
+
+    SharedStage(Provider<T> provider, Executor executor) {
+        this.provider = provider;
+        this.executor = executor;
+        // start loading as soon as the scope creates this instance
+        this.shared = load();
+    }
+
+    /**
+     * Creates a new key to which a shared stage can be bound. Every invocation
+     * returns a key which is different from all previously created keys.
+     *
+     * @param type The type of the loaded object.
+     * @return The key.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Key<SharedStage<T>> newKey(Type type) {
+        return (Key<SharedStage<T>>) Key.get(
+                Types.newParameterizedType(SharedStage.class, type),
+                new LoadImpl(KEYS.incrementAndGet()));
+    }
+
+    private CompletableFuture<T> load() {
+        return CompletableFuture.supplyAsync(this.provider::get, this.executor);
+    }
+
+    /**
+     * Creates a new stage for a single consumer.
+     *
+     * @return A stage which completes with the loaded object.
+     */
+    synchronized CompletionStage<T> newStage() {
+        if (this.shared.isCompletedExceptionally()) {
+            this.shared = load();
+        }
+        return this.shared.thenApply(Function.identity());
+    }
+}
@@ -0,0 +1,28 @@
+package de.skuzzle.inject.conf;
+
+/**
+ * Implemented by {@link CachingStrategy caching strategies} which can tell without
+ * any I/O whether the cached content of a resource might have become stale. Cached
+ * resources only consult the strategy and lock for refreshing while this is the
+ * case, so that reading unchanged content only needs a few volatile reads.
+ *
+ * @author Simon Taddiken
+ */
+interface StalenessHint {
+
+    /**
+     * Whether {@link CachingStrategy#refreshTextCache(TextResource)} might return
+     * <code>true</code>.
+     *
+     * @return Whether the text cache might be stale.
+     */
+    boolean textMightBeStale();
+
+    /**
+     * Whether {@link CachingStrategy#refreshBinaryCache(TextResource)} might
+     * return <code>true</code>.
+     *
+     * @return Whether the binary cache might be stale.
+     */
+    boolean binaryMightBeStale();
+}
@@ -7,12 +7,14 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
 
 class StringTextResource implements TextResource {
 
     private final String s;
     private final long time;
     private final ResourceUtil util;
+    private final ReaderSession session = new ReaderSession(this);
 
     StringTextResource(String s, ResourceUtil util) {
         this.s = s;
@@ -30,6 +32,11 @@ class StringTextResource implements TextResource {
         return this.util.writeFromSource(this, out);
     }
 
+    @Override
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        return this.util.writeFromSource(this, channel);
+    }
+
     @Override
     public long getLastModifiedTime() throws IOException {
         return this.time;
@@ -37,7 +44,7 @@ class StringTextResource implements TextResource {
 
     @Override
     public int read(CharBuffer cb) throws IOException {
-        return this.util.readFromSource(this, cb);
+        return this.session.read(cb);
     }
 
     @Override
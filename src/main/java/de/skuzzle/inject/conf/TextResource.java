@@ -2,9 +2,36 @@ package de.skuzzle.inject.conf;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
 
 public interface TextResource extends BinaryResource, Readable {
 
     Reader openStream() throws IOException;
 
+    /**
+     * Reads the next chunk of this resource. All callers which read the resource
+     * directly share a single position within it. Consumers which read the
+     * resource independently of each other should use their own
+     * {@link #newSession() session} instead.
+     *
+     * @param cb The buffer to read into.
+     * @return The number of chars read or <code>-1</code> if the end of the resource
+     *         has been reached.
+     * @throws IOException If reading fails.
+     */
+    @Override
+    int read(CharBuffer cb) throws IOException;
+
+    /**
+     * Creates a new session for incrementally reading this resource through the
+     * {@link Readable} interface. Every session has its own position within the
+     * resource. The caller owns the session and must close it if it stops reading
+     * before the end of the resource.
+     *
+     * @return The new session.
+     * @since 0.4.0
+     */
+    default ReaderSession newSession() {
+        return new ReaderSession(this);
+    }
 }
@@ -14,7 +14,9 @@ import javax.servlet.ServletContext;
  */
 interface TextResourceFactory {
 
-    TextResource cache(TextResource resource, CachingStrategy strategy);
+    CachedTextResource cache(TextResource resource, CachingStrategy strategy,
+            Charset charset, boolean compact, boolean inlineRefresh,
+            CacheBudget budget);
 
     TextResource newClassPathResource(String path, ClassLoader cl, Charset charset);
 
@@ -25,5 +27,7 @@ interface TextResourceFactory {
 
     TextResource newNioResource(Path path, Charset charset);
 
+    TextResource newMappedFileResource(Path path, Charset charset);
+
     TextResource newStringResource(String text);
 }
@@ -16,8 +16,11 @@ final class TextResourceFactoryImpl implements TextResourceFactory {
     }
 
     @Override
-    public TextResource cache(TextResource resource, CachingStrategy strategy) {
-        return new CachedTextResource(resource, strategy, this.util);
+    public CachedTextResource cache(TextResource resource, CachingStrategy strategy,
+            Charset charset, boolean compact, boolean inlineRefresh,
+            CacheBudget budget) {
+        return new CachedTextResource(resource, strategy, this.util, charset,
+                compact, inlineRefresh, budget);
     }
 
     @Override
@@ -34,6 +37,10 @@ final class TextResourceFactoryImpl implements TextResourceFactory {
 
     @Override
     public TextResource newURLResource(URL url, Charset charset) {
+        final String protocol = url.getProtocol();
+        if ("http".equals(protocol) || "https".equals(protocol)) {
+            return new HttpURLResource(this.util, url, charset);
+        }
         return new DefaultURLResource(this.util, charset, url);
     }
 
@@ -42,6 +49,11 @@ final class TextResourceFactoryImpl implements TextResourceFactory {
         return new NioResource(this.util, path, charset);
     }
 
+    @Override
+    public TextResource newMappedFileResource(Path path, Charset charset) {
+        return new MappedFileResource(this.util, path, charset);
+    }
+
     @Override
     public TextResource newStringResource(String text) {
         return new StringTextResource(text, this.util);
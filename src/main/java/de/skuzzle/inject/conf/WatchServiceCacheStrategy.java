@@ -0,0 +1,98 @@
+package de.skuzzle.inject.conf;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caching strategy for file resources which is notified about changes by a
+ * {@link FileWatcher} instead of checking the file's modification date on every
+ * access.
+ *
+ * @author Simon Taddiken
+ */
+final class WatchServiceCacheStrategy implements CachingStrategy, StalenessHint,
+        FileWatcher.Listener {
+
+    // incremented by the watcher thread
+    private final AtomicLong modifications;
+    private final AtomicLong textSeen;
+    private final AtomicLong binarySeen;
+    private volatile boolean cancelled;
+
+    private WatchServiceCacheStrategy() {
+        this.modifications = new AtomicLong();
+        this.textSeen = new AtomicLong();
+        this.binarySeen = new AtomicLong();
+    }
+
+    /**
+     * Creates a new strategy which is registered for changes of the given file.
+     *
+     * @param watcher The watcher to register with.
+     * @param file The file to watch.
+     * @return The strategy.
+     * @throws IOException If the file can not be watched.
+     */
+    static WatchServiceCacheStrategy watch(FileWatcher watcher, Path file)
+            throws IOException {
+        final WatchServiceCacheStrategy strategy = new WatchServiceCacheStrategy();
+        watcher.register(file, strategy);
+        return strategy;
+    }
+
+    @Override
+    public void fileChanged() {
+        this.modifications.incrementAndGet();
+    }
+
+    @Override
+    public void watchCancelled() {
+        this.cancelled = true;
+    }
+
+    @Override
+    public void textCacheRefreshed(TextResource resource, String bufferedString) {
+        // nothing to do here
+    }
+
+    @Override
+    public void binaryCacheRefreshed(TextResource resource, byte[] bufferedBytes) {
+        // nothing to do here
+    }
+
+    @Override
+    public boolean refreshTextCache(TextResource resource) {
+        return checkModified(this.textSeen);
+    }
+
+    @Override
+    public boolean refreshBinaryCache(TextResource resource) {
+        return checkModified(this.binarySeen);
+    }
+
+    @Override
+    public boolean textMightBeStale() {
+        return mightBeModified(this.textSeen);
+    }
+
+    @Override
+    public boolean binaryMightBeStale() {
+        return mightBeModified(this.binarySeen);
+    }
+
+    private boolean mightBeModified(AtomicLong seen) {
+        return this.cancelled || seen.get() != this.modifications.get();
+    }
+
+    private boolean checkModified(AtomicLong seen) {
+        if (this.cancelled) {
+            // changes can no longer be detected
+            return true;
+        }
+        final long current = this.modifications.get();
+        // modifications which happen while the cache is re-read will cause yet
+        // another refresh on the next access
+        return seen.get() != current && seen.getAndSet(current) != current;
+    }
+}
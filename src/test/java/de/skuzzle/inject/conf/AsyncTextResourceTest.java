@@ -0,0 +1,95 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncTextResourceTest {
+
+    @Mock
+    private TextResource resource;
+
+    private ExecutorService executor;
+    private AsyncTextResource subject;
+
+    @Before
+    public void setUp() throws Exception {
+        this.executor = Executors.newSingleThreadExecutor();
+        this.subject = AsyncTextResource.of(this.resource, this.executor);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testGetResource() throws Exception {
+        assertSame(this.resource, this.subject.getResource());
+    }
+
+    @Test
+    public void testReadText() throws Exception {
+        when(this.resource.openStream()).thenReturn(new StringReader("foobar"));
+        assertEquals("foobar", this.subject.readText().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testReadBytes() throws Exception {
+        when(this.resource.openBinaryStream()).thenReturn(
+                new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+        assertArrayEquals(new byte[] { 1, 2, 3 },
+                this.subject.readBytes().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testReadWithContentType() throws Exception {
+        final Thread caller = Thread.currentThread();
+        final TextContentType contentType = mock(TextContentType.class);
+        when(contentType.createInstance(String.class, this.resource)).then(
+                invocation -> {
+                    assertNotSame(caller, Thread.currentThread());
+                    return "foo";
+                });
+
+        assertEquals("foo", this.subject.read(contentType, String.class)
+                .toCompletableFuture().get());
+    }
+
+    @Test
+    public void testIOException() throws Exception {
+        when(this.resource.openStream()).thenThrow(IOException.class);
+        try {
+            this.subject.readText().toCompletableFuture().get();
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+            return;
+        }
+        throw new AssertionError("expected ExecutionException");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullExecutor() throws Exception {
+        AsyncTextResource.of(this.resource, null);
+    }
+}
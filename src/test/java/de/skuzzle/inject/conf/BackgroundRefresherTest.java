@@ -0,0 +1,132 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.common.io.ByteStreams;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BackgroundRefresherTest {
+
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    @Mock
+    private ScheduledExecutorService executor;
+    @Mock
+    private TextResource wrapped;
+    @Mock
+    private CachingStrategy strategy;
+
+    private CachedTextResource resource;
+    private BackgroundRefresher subject;
+
+    @Before
+    public void setUp() throws Exception {
+        this.resource = new CachedTextResource(this.wrapped, this.strategy,
+                new ResourceUtil(), null, false, false);
+        this.subject = new BackgroundRefresher(this.executor);
+        when(this.wrapped.openBinaryStream()).then(
+                invocation -> new ByteArrayInputStream(new byte[] { 1 }));
+        // buffer content so that the strategy will be consulted
+        ByteStreams.toByteArray(this.resource.openBinaryStream());
+    }
+
+    // runs the last scheduled task and returns the delay of the next one
+    private long runScheduledTask(int expectedSchedules) {
+        final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        final ArgumentCaptor<Long> delay = ArgumentCaptor.forClass(Long.class);
+        verify(this.executor, times(expectedSchedules)).schedule(task.capture(),
+                delay.capture(), Mockito.eq(TimeUnit.NANOSECONDS));
+        task.getValue().run();
+
+        verify(this.executor, times(expectedSchedules + 1)).schedule(task.capture(),
+                delay.capture(), Mockito.eq(TimeUnit.NANOSECONDS));
+        return delay.getValue();
+    }
+
+    private static void assertDelay(long expectedFactor, long actual) {
+        final long expected = INTERVAL * expectedFactor;
+        assertTrue("delay " + actual + " not within 10% of " + expected,
+                Math.abs(actual - expected) <= expected / 10);
+    }
+
+    @Test
+    public void testScheduleWithJitter() throws Exception {
+        this.subject.schedule(this.resource, 10, TimeUnit.SECONDS);
+
+        final ArgumentCaptor<Long> delay = ArgumentCaptor.forClass(Long.class);
+        verify(this.executor).schedule(Mockito.any(Runnable.class), delay.capture(),
+                Mockito.eq(TimeUnit.NANOSECONDS));
+        assertDelay(1, delay.getValue());
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        this.subject.schedule(this.resource, 10, TimeUnit.SECONDS);
+        when(this.strategy.refreshBinaryCache(this.resource)).thenReturn(true);
+        when(this.wrapped.openBinaryStream()).then(
+                invocation -> new ByteArrayInputStream(new byte[] { 2 }));
+        final long version = this.resource.getVersion();
+
+        assertDelay(1, runScheduledTask(1));
+        assertEquals(version + 1, this.resource.getVersion());
+    }
+
+    @Test
+    public void testBackoffOnError() throws Exception {
+        this.subject.schedule(this.resource, 10, TimeUnit.SECONDS);
+        when(this.strategy.refreshBinaryCache(this.resource))
+                .thenThrow(IOException.class)
+                .thenThrow(IOException.class)
+                .thenReturn(false);
+
+        assertDelay(2, runScheduledTask(1));
+        assertDelay(4, runScheduledTask(2));
+        assertDelay(1, runScheduledTask(3));
+    }
+
+    @Test
+    public void testMaximumBackoff() throws Exception {
+        this.subject.schedule(this.resource, 10, TimeUnit.SECONDS);
+        when(this.strategy.refreshBinaryCache(this.resource))
+                .thenThrow(IOException.class);
+
+        long delay = 0;
+        for (int i = 1; i <= 10; ++i) {
+            delay = runScheduledTask(i);
+        }
+        assertDelay(16, delay);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidInterval() throws Exception {
+        this.subject.schedule(this.resource, 0, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullResource() throws Exception {
+        this.subject.schedule(null, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullUnit() throws Exception {
+        this.subject.schedule(mock(CachedTextResource.class), 1, null);
+    }
+}
@@ -0,0 +1,75 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+public class BeanInterfaceTest {
+
+    public static interface SampleInterface {
+        String getFoo();
+
+        boolean isBar();
+
+        int baz();
+
+        static SampleInterface create() {
+            return null;
+        }
+    }
+
+    private final BeanUtil beanUtil = new BeanUtil();
+
+    @Test
+    public void testCached() throws Exception {
+        assertSame(this.beanUtil.getBeanInterface(SampleInterface.class),
+                this.beanUtil.getBeanInterface(SampleInterface.class));
+    }
+
+    @Test
+    public void testIgnoreStaticMethods() throws Exception {
+        final BeanInterface subject = this.beanUtil.getBeanInterface(
+                SampleInterface.class);
+        assertEquals(3, subject.size());
+    }
+
+    @Test
+    public void testSlots() throws Exception {
+        final BeanInterface subject = this.beanUtil.getBeanInterface(
+                SampleInterface.class);
+        final Method method = SampleInterface.class.getMethod("isBar");
+        final int slot = subject.getSlot(method);
+
+        assertEquals(method, subject.getGetter(slot));
+        assertEquals("bar", subject.getPropertyName(slot));
+        assertEquals("bar", subject.getPropertyName(method));
+    }
+
+    @Test
+    public void testSlotByPropertyName() throws Exception {
+        final BeanInterface subject = this.beanUtil.getBeanInterface(
+                SampleInterface.class);
+        final int slot = subject.getSlot("foo");
+
+        assertEquals(SampleInterface.class.getMethod("getFoo"), subject.getGetter(slot));
+        assertEquals(-1, subject.getSlot("unknown"));
+    }
+
+    @Test
+    public void testUnknownMethod() throws Exception {
+        final BeanInterface subject = this.beanUtil.getBeanInterface(
+                SampleInterface.class);
+        final Method method = Object.class.getMethod("toString");
+
+        assertEquals(-1, subject.getSlot(method));
+        assertEquals("toString", subject.getPropertyName(method));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoInterface() throws Exception {
+        this.beanUtil.getBeanInterface(Object.class);
+    }
+}
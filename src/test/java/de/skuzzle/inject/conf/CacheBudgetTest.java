@@ -0,0 +1,217 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+public class CacheBudgetTest {
+
+    private CacheBudget subject;
+
+    @Before
+    public void setUp() throws Exception {
+        this.subject = new CacheBudget(10);
+    }
+
+    private TextResource mockResource(byte[] content) throws Exception {
+        final TextResource resource = mock(TextResource.class);
+        when(resource.openBinaryStream()).then(
+                invocation -> new ByteArrayInputStream(content));
+        return resource;
+    }
+
+    private CachedTextResource cache(TextResource resource, CachingStrategy strategy) {
+        return new CachedTextResource(resource, strategy, new ResourceUtil(),
+                StandardCharsets.UTF_8, false, true, this.subject);
+    }
+
+    private static byte[] read(CachedTextResource resource) throws Exception {
+        return ByteStreams.toByteArray(resource.openBinaryStream());
+    }
+
+    @Test
+    public void testUnlimited() throws Exception {
+        this.subject = new CacheBudget(Long.MAX_VALUE);
+        final TextResource resource = mockResource(new byte[] { 1, 2, 3 });
+        final CachedTextResource cached = cache(resource,
+                ConstantCacheStrategy.getInstance());
+
+        read(cached);
+        read(cached);
+        read(cached);
+
+        verify(resource, times(1)).openBinaryStream();
+        assertEquals(2, this.subject.getHitCount());
+        assertEquals(1, this.subject.getMissCount());
+        assertEquals(0, this.subject.getEvictionCount());
+        assertEquals(3, this.subject.getBufferedBytes());
+        assertEquals(Long.MAX_VALUE, this.subject.getBudget());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        final byte[] content = new byte[] { 1, 2, 3, 4, 5, 6 };
+        final TextResource first = mockResource(content);
+        final TextResource second = mockResource(content);
+        final CachedTextResource cachedFirst = cache(first,
+                ConstantCacheStrategy.getInstance());
+        final CachedTextResource cachedSecond = cache(second,
+                ConstantCacheStrategy.getInstance());
+
+        read(cachedFirst);
+        read(cachedSecond);
+        assertEquals(1, this.subject.getEvictionCount());
+        assertEquals(6, this.subject.getBufferedBytes());
+
+        // evicted content is read again transparently
+        assertArrayEquals(content, read(cachedFirst));
+        verify(first, times(2)).openBinaryStream();
+        assertEquals(2, this.subject.getEvictionCount());
+        assertEquals(3, this.subject.getMissCount());
+        assertEquals(0, this.subject.getHitCount());
+
+        read(cachedFirst);
+        verify(first, times(2)).openBinaryStream();
+        assertEquals(1, this.subject.getHitCount());
+    }
+
+    @Test
+    public void testServeContentLargerThanBudget() throws Exception {
+        final byte[] content = new byte[20];
+        final TextResource resource = mockResource(content);
+        final CachedTextResource cached = cache(resource,
+                ConstantCacheStrategy.getInstance());
+
+        assertArrayEquals(content, read(cached));
+        assertArrayEquals(content, read(cached));
+        verify(resource, times(2)).openBinaryStream();
+        assertEquals(0, this.subject.getBufferedBytes());
+    }
+
+    @Test
+    public void testKeepVersionOfUnchangedEvictedContent() throws Exception {
+        final CachedTextResource cached = cache(mockResource(new byte[20]),
+                new TimestampCacheStrategy());
+        read(cached);
+        final long version = cached.getVersion();
+
+        read(cached);
+        assertEquals(version, cached.getVersion());
+    }
+
+    @Test
+    public void testKeepVersionOfTouchedEvictedContent() throws Exception {
+        final TextResource resource = mockResource(new byte[20]);
+        final CachedTextResource cached = cache(resource, new TimestampCacheStrategy());
+        read(cached);
+        final long version = cached.getVersion();
+
+        when(resource.getLastModifiedTime()).thenReturn(1L);
+        read(cached);
+        assertEquals(version, cached.getVersion());
+    }
+
+    @Test
+    public void testChangeVersionOfChangedEvictedContent() throws Exception {
+        final TextResource resource = mockResource(new byte[20]);
+        final CachedTextResource cached = cache(resource, new TimestampCacheStrategy());
+        read(cached);
+        final long version = cached.getVersion();
+
+        when(resource.openBinaryStream()).then(
+                invocation -> new ByteArrayInputStream(new byte[21]));
+        when(resource.getLastModifiedTime()).thenReturn(1L);
+        assertEquals(21, read(cached).length);
+        assertNotEquals(version, cached.getVersion());
+    }
+
+    @Test
+    public void testChangeVersionOfChangedEvictedContentWithoutReading()
+            throws Exception {
+        final TextResource resource = mockResource(new byte[20]);
+        final CachedTextResource cached = cache(resource, new TimestampCacheStrategy());
+        read(cached);
+        final long version = cached.getVersion();
+
+        when(resource.openBinaryStream()).then(
+                invocation -> new ByteArrayInputStream(new byte[21]));
+        when(resource.getLastModifiedTime()).thenReturn(1L);
+        CachedTextResourceTest.awaitNextCheck();
+        assertNotEquals(version, cached.getVersion());
+    }
+
+    @Test
+    public void testRecreateObjectFromChangedEvictedContent() throws Exception {
+        final TextResource resource = mockResource(new byte[20]);
+        final CachedTextResource cached = cache(resource, new TimestampCacheStrategy());
+        final MemoizingProvider<Integer> provider = new MemoizingProvider<>(cached,
+                () -> {
+                    try {
+                        return read(cached).length;
+                    } catch (final Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+        assertEquals(20, (int) provider.get());
+
+        when(resource.openBinaryStream()).then(
+                invocation -> new ByteArrayInputStream(new byte[21]));
+        when(resource.getLastModifiedTime()).thenReturn(1L);
+        CachedTextResourceTest.awaitNextCheck();
+        assertEquals(21, (int) provider.get());
+    }
+
+    @Test
+    public void testOneBudgetPerInjector() throws Exception {
+        final Injector first = Guice.createInjector();
+        final Injector second = Guice.createInjector();
+        final CacheStatistics statistics = Resources.getCacheStatistics(first);
+
+        assertSame(statistics, first.getInstance(CacheBudget.class));
+        assertSame(statistics, first.createChildInjector()
+                .getInstance(CacheStatistics.class));
+        assertNotSame(statistics, Resources.getCacheStatistics(second));
+    }
+
+    @Test
+    public void testSetBudget() throws Exception {
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                Resources.setCacheBudget(binder(), 1024);
+            }
+        });
+        assertEquals(1024, Resources.getCacheStatistics(injector).getBudget());
+        assertSame(injector.getInstance(CacheBudget.class),
+                injector.getInstance(ResourceRegistry.class).getBudget());
+    }
+
+    @Test
+    public void testBudgetFromSystemProperty() throws Exception {
+        System.setProperty(CacheStatistics.BUDGET_PROPERTY, "2048");
+        try {
+            assertEquals(2048, Resources.getCacheStatistics(Guice.createInjector())
+                    .getBudget());
+        } finally {
+            System.clearProperty(CacheStatistics.BUDGET_PROPERTY);
+        }
+    }
+}
@@ -2,18 +2,28 @@ package de.skuzzle.inject.conf;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -28,6 +38,15 @@ import com.google.common.io.CharStreams;
 @RunWith(MockitoJUnitRunner.class)
 public class CachedTextResourceTest {
 
+    /**
+     * Waits until {@link CachedTextResource#getVersion()} consults a polling strategy
+     * again.
+     */
+    static void awaitNextCheck() throws InterruptedException {
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(
+                CachedTextResource.CHECK_INTERVAL_NANOS) + 1);
+    }
+
     @Mock
     private TextResource wrapped;
     @Mock
@@ -38,7 +57,7 @@ public class CachedTextResourceTest {
     @Before
     public void setUp() throws Exception {
         this.subject = new CachedTextResource(this.wrapped,
-                ConstantCacheStrategy.getInstance(), this.resourceUtil);
+                ConstantCacheStrategy.getInstance(), this.resourceUtil, null, false);
     }
 
     @Test
@@ -122,6 +141,194 @@ public class CachedTextResourceTest {
         this.subject.openStream();
     }
 
+    @Test
+    public void testVersionUnchanged() throws Exception {
+        when(this.wrapped.openStream()).thenReturn(new StringReader("foobar"));
+
+        final long before = ((CachedTextResource) this.subject).getVersion();
+        this.subject.openStream();
+        assertEquals(before, ((CachedTextResource) this.subject).getVersion());
+    }
+
+    @Test
+    public void testVersionChangesOnRefresh() throws Exception {
+        final CachingStrategy strategy = mock(CachingStrategy.class);
+        final CachedTextResource subject = new CachedTextResource(this.wrapped,
+                strategy, this.resourceUtil, null, false);
+        when(this.wrapped.openStream()).thenReturn(new StringReader("foo"),
+                new StringReader("bar"));
+
+        subject.openStream();
+        final long before = subject.getVersion();
+
+        when(strategy.refreshTextCache(subject)).thenReturn(true);
+        awaitNextCheck();
+        final long after = subject.getVersion();
+        assertNotEquals(before, after);
+
+        when(strategy.refreshTextCache(subject)).thenReturn(false);
+        assertEquals("bar", CharStreams.toString(subject.openStream()));
+        assertEquals(after, subject.getVersion());
+    }
+
+    @Test
+    public void testVersionUnchangedForSameContent() throws Exception {
+        final CachingStrategy strategy = mock(CachingStrategy.class);
+        final CachedTextResource subject = new CachedTextResource(this.wrapped,
+                strategy, this.resourceUtil, null, false);
+        when(this.wrapped.openStream()).thenReturn(new StringReader("foo"),
+                new StringReader("foo"));
+        when(this.wrapped.openBinaryStream()).thenReturn(
+                new ByteArrayInputStream(new byte[] { 1 }),
+                new ByteArrayInputStream(new byte[] { 1 }));
+
+        subject.openStream();
+        subject.openBinaryStream();
+        final long before = subject.getVersion();
+
+        when(strategy.refreshTextCache(subject)).thenReturn(true);
+        when(strategy.refreshBinaryCache(subject)).thenReturn(true);
+        awaitNextCheck();
+        assertEquals(before, subject.getVersion());
+        verify(this.wrapped, times(2)).openStream();
+        verify(this.wrapped, times(2)).openBinaryStream();
+    }
+
+    @Test
+    public void testVersionSkipsStrategyWhileHintReportsFresh() throws Exception {
+        final CachingStrategy strategy = mock(CachingStrategy.class,
+                withSettings().extraInterfaces(StalenessHint.class));
+        final CachedTextResource subject = new CachedTextResource(this.wrapped,
+                strategy, this.resourceUtil, null, false);
+        when(this.wrapped.openStream()).thenReturn(new StringReader("foo"),
+                new StringReader("bar"));
+        subject.openStream();
+
+        final long before = subject.getVersion();
+        assertEquals(before, subject.getVersion());
+        verify(strategy, never()).refreshTextCache(subject);
+
+        when(((StalenessHint) strategy).textMightBeStale()).thenReturn(true);
+        when(strategy.refreshTextCache(subject)).thenReturn(true);
+        assertNotEquals(before, subject.getVersion());
+    }
+
+    @Test
+    public void testVersionConsultsPollingStrategyOncePerInterval() throws Exception {
+        final CachingStrategy strategy = mock(CachingStrategy.class);
+        final CachedTextResource subject = new CachedTextResource(this.wrapped,
+                strategy, this.resourceUtil, null, false);
+        when(this.wrapped.openStream()).thenReturn(new StringReader("foo"));
+        subject.openStream();
+
+        awaitNextCheck();
+        subject.getVersion();
+        subject.getVersion();
+        verify(strategy, times(1)).refreshTextCache(subject);
+    }
+
+    @Test
+    public void testRefreshOnlyExplicitly() throws Exception {
+        final CachingStrategy strategy = mock(CachingStrategy.class);
+        final CachedTextResource subject = new CachedTextResource(this.wrapped,
+                strategy, this.resourceUtil, null, false, false);
+        when(this.wrapped.openStream()).thenReturn(new StringReader("foo"),
+                new StringReader("bar"));
+        when(strategy.refreshTextCache(subject)).thenReturn(true);
+
+        assertEquals("foo", CharStreams.toString(subject.openStream()));
+        final long version = subject.getVersion();
+        assertEquals("foo", CharStreams.toString(subject.openStream()));
+        verify(strategy, never()).refreshTextCache(subject);
+
+        subject.refresh();
+        assertEquals("bar", CharStreams.toString(subject.openStream()));
+        assertNotEquals(version, subject.getVersion());
+    }
+
+    @Test
+    public void testServeStaleContentWhileRefreshing() throws Exception {
+        final CachingStrategy strategy = mock(CachingStrategy.class);
+        final CachedTextResource subject = new CachedTextResource(this.wrapped,
+                strategy, this.resourceUtil, null, false);
+        final CountDownLatch refreshStarted = new CountDownLatch(1);
+        final CountDownLatch finishRefresh = new CountDownLatch(1);
+        when(this.wrapped.openStream()).thenReturn(new StringReader("foo"))
+                .then(invocation -> {
+                    refreshStarted.countDown();
+                    finishRefresh.await();
+                    return new StringReader("bar");
+                });
+        subject.openStream();
+        when(strategy.refreshTextCache(subject)).thenReturn(true, false);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<String> refreshed = executor.submit(
+                    () -> CharStreams.toString(subject.openStream()));
+            refreshStarted.await();
+
+            assertEquals("foo", CharStreams.toString(subject.openStream()));
+            finishRefresh.countDown();
+            assertEquals("bar", refreshed.get());
+            assertEquals("bar", CharStreams.toString(subject.openStream()));
+        } finally {
+            finishRefresh.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDecodeTextFromBytes() throws Exception {
+        final CachedTextResource subject = new CachedTextResource(this.wrapped,
+                ConstantCacheStrategy.getInstance(), this.resourceUtil,
+                StandardCharsets.UTF_8, false);
+        final byte[] content = "föö".getBytes(StandardCharsets.UTF_8);
+        when(this.wrapped.openBinaryStream()).thenReturn(
+                new ByteArrayInputStream(content));
+
+        assertEquals("föö", CharStreams.toString(subject.openStream()));
+        assertEquals("föö", CharStreams.toString(subject.openStream()));
+        assertArrayEquals(content, ByteStreams.toByteArray(subject.openBinaryStream()));
+        verify(this.wrapped, times(1)).openBinaryStream();
+        verify(this.wrapped, never()).openStream();
+    }
+
+    @Test
+    public void testCompactDecodesFromBytes() throws Exception {
+        final CachedTextResource subject = new CachedTextResource(this.wrapped,
+                ConstantCacheStrategy.getInstance(), this.resourceUtil,
+                StandardCharsets.ISO_8859_1, true);
+        final byte[] content = "föö".getBytes(StandardCharsets.ISO_8859_1);
+        when(this.wrapped.openBinaryStream()).thenReturn(
+                new ByteArrayInputStream(content));
+        when(this.resourceUtil.newReader(Mockito.any(InputStream.class),
+                Mockito.eq(StandardCharsets.ISO_8859_1))).then(invocation ->
+                        new InputStreamReader(invocation.getArgumentAt(0,
+                                InputStream.class), StandardCharsets.ISO_8859_1));
+
+        assertEquals("föö", CharStreams.toString(subject.openStream()));
+        assertEquals("föö", CharStreams.toString(subject.openStream()));
+        verify(this.wrapped, times(1)).openBinaryStream();
+        verify(this.resourceUtil, times(2)).newReader(Mockito.any(InputStream.class),
+                Mockito.eq(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void testRefreshDecodedText() throws Exception {
+        final CachingStrategy strategy = mock(CachingStrategy.class);
+        final CachedTextResource subject = new CachedTextResource(this.wrapped,
+                strategy, this.resourceUtil, StandardCharsets.UTF_8, false);
+        when(this.wrapped.openBinaryStream()).thenReturn(
+                new ByteArrayInputStream("foo".getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayInputStream("bar".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("foo", CharStreams.toString(subject.openStream()));
+        when(strategy.refreshBinaryCache(subject)).thenReturn(true, false);
+        assertEquals("bar", CharStreams.toString(subject.openStream()));
+        verify(strategy, never()).refreshTextCache(subject);
+    }
+
     @Test
     public void testGetLastModificationTime() throws Exception {
         when(this.wrapped.getLastModifiedTime()).thenReturn(1337L);
@@ -2,10 +2,14 @@ package de.skuzzle.inject.conf;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.net.URL;
@@ -87,4 +91,51 @@ public class ClassPathResourceTest {
         this.subject.openStream();
     }
 
+    @Test
+    public void testResolveURLOnce() throws Exception {
+        final URL url = new URL("http://www.google.com");
+        when(this.classLoader.getResource(this.resourcePath)).thenReturn(url);
+
+        this.subject.openBinaryStream();
+        this.subject.openBinaryStream();
+        verify(this.classLoader, times(1)).getResource(this.resourcePath);
+    }
+
+    @Test
+    public void testResolveAgainAfterFailure() throws Exception {
+        final URL url = new URL("http://www.google.com");
+        when(this.classLoader.getResource(this.resourcePath)).thenReturn(url);
+        when(this.util.newInputStream(url)).thenThrow(IOException.class)
+                .thenReturn(mock(InputStream.class));
+
+        try {
+            this.subject.openBinaryStream();
+            fail("expected IOException");
+        } catch (final IOException expected) {
+        }
+        this.subject.openBinaryStream();
+        verify(this.classLoader, times(2)).getResource(this.resourcePath);
+    }
+
+    @Test
+    public void testImmutableLastModified() throws Exception {
+        final URL url = new URL("jar:file:/foo.jar!/foo/bar");
+        when(this.classLoader.getResource(this.resourcePath)).thenReturn(url);
+        when(this.util.isJarEntry(url)).thenReturn(true);
+        when(this.util.getLastModifiedTime(url)).thenReturn(1337L);
+
+        assertEquals(1337L, this.subject.getLastModifiedTime());
+        assertEquals(1337L, this.subject.getLastModifiedTime());
+        verify(this.util, times(1)).getLastModifiedTime(url);
+    }
+
+    @Test
+    public void testMutableLastModified() throws Exception {
+        final URL url = new URL("file:/foo/bar");
+        when(this.classLoader.getResource(this.resourcePath)).thenReturn(url);
+        when(this.util.getLastModifiedTime(url)).thenReturn(1337L, 1338L);
+
+        assertEquals(1337L, this.subject.getLastModifiedTime());
+        assertEquals(1338L, this.subject.getLastModifiedTime());
+    }
 }
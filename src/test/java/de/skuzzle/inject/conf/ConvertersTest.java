@@ -0,0 +1,246 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.TypeLiteral;
+
+public class ConvertersTest {
+
+    public static class WithValueOf {
+        private final String value;
+
+        private WithValueOf(String value) {
+            this.value = value;
+        }
+
+        public static WithValueOf valueOf(String s) {
+            return new WithValueOf("valueOf:" + s);
+        }
+    }
+
+    public static class WithCheckedException {
+        public WithCheckedException(String s) throws IOException {
+            throw new IOException(s);
+        }
+    }
+
+    public static interface Shape {
+        String getName();
+    }
+
+    public static class Circle implements Shape {
+        private final String name;
+
+        Circle(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    private static class CircleConverter implements Converter<Circle> {
+
+        @Override
+        public Class<Circle> forType() {
+            return Circle.class;
+        }
+
+        @Override
+        public Circle parseString(String s) {
+            return new Circle(s);
+        }
+    }
+
+    public static class UnitCircle extends Circle {
+        UnitCircle(String name) {
+            super(name);
+        }
+    }
+
+    public static class Square implements Shape {
+        private final String name;
+
+        Square(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+    }
+
+    private static class UnitCircleConverter implements Converter<UnitCircle> {
+
+        @Override
+        public Class<UnitCircle> forType() {
+            return UnitCircle.class;
+        }
+
+        @Override
+        public UnitCircle parseString(String s) {
+            return new UnitCircle(s);
+        }
+    }
+
+    private static class SquareConverter implements Converter<Square> {
+
+        @Override
+        public Class<Square> forType() {
+            return Square.class;
+        }
+
+        @Override
+        public Square parseString(String s) {
+            return new Square(s);
+        }
+    }
+
+    private final Converters subject = new Converters();
+
+    @Test
+    public void testPrimitive() throws Exception {
+        assertEquals(5, (int) this.subject.parse(Integer.TYPE, "5"));
+    }
+
+    @Test
+    public void testEnum() throws Exception {
+        assertSame(TimeUnit.SECONDS, this.subject.parse(TimeUnit.class, "SECONDS"));
+    }
+
+    @Test
+    public void testStaticValueOf() throws Exception {
+        assertEquals("valueOf:foo", this.subject.parse(WithValueOf.class, "foo").value);
+    }
+
+    @Test
+    public void testStringConstructor() throws Exception {
+        assertEquals(new BigDecimal("1.5"), this.subject.parse(BigDecimal.class, "1.5"));
+        assertEquals(new File("foo"), this.subject.parse(File.class, "foo"));
+    }
+
+    @Test(expected = ConverterException.class)
+    public void testWrapCheckedException() throws Exception {
+        this.subject.parse(WithCheckedException.class, "foo");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoConversion() throws Exception {
+        this.subject.parse(Shape.class, "foo");
+    }
+
+    @Test
+    public void testContributeConverter() throws Exception {
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<Converter<Circle>>() {})
+                        .toInstance(new CircleConverter());
+            }
+        });
+        this.subject.contribute(injector);
+
+        assertEquals("foo", this.subject.parse(Circle.class, "foo").getName());
+    }
+
+    @Test
+    public void testContributeConverterForSubType() throws Exception {
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<Converter<Circle>>() {})
+                        .toInstance(new CircleConverter());
+            }
+        });
+        this.subject.contribute(injector);
+
+        assertEquals("foo", this.subject.parse(Shape.class, "foo").getName());
+    }
+
+    @Test
+    public void testMostSpecificSubTypeConverter() throws Exception {
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<Converter<Circle>>() {})
+                        .toInstance(new CircleConverter());
+                bind(new TypeLiteral<Converter<UnitCircle>>() {})
+                        .toInstance(new UnitCircleConverter());
+            }
+        });
+        this.subject.contribute(injector);
+
+        assertEquals(UnitCircle.class, this.subject.parse(Shape.class, "foo")
+                .getClass());
+    }
+
+    @Test
+    public void testUnrelatedSubTypeConvertersInRegistrationOrder() throws Exception {
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<Converter<Square>>() {})
+                        .toInstance(new SquareConverter());
+                bind(new TypeLiteral<Converter<Circle>>() {})
+                        .toInstance(new CircleConverter());
+            }
+        });
+        this.subject.contribute(injector);
+
+        assertEquals(Square.class, this.subject.parse(Shape.class, "foo").getClass());
+    }
+
+    @Test
+    public void testContributeConverterFromParent() throws Exception {
+        final Injector parent = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<Converter<Circle>>() {})
+                        .toInstance(new CircleConverter());
+            }
+        });
+        this.subject.contribute(parent.createChildInjector());
+
+        assertEquals("foo", this.subject.parse(Circle.class, "foo").getName());
+    }
+
+    @Test
+    public void testCachedFunctionIsRefreshedOnContribute() throws Exception {
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<Converter<Circle>>() {})
+                        .toInstance(new CircleConverter());
+            }
+        });
+        try {
+            this.subject.parse(Circle.class, "foo");
+            fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) {
+            // no converter yet
+        }
+        this.subject.contribute(injector);
+        assertEquals("bar", this.subject.parse(Circle.class, "bar").getName());
+    }
+}
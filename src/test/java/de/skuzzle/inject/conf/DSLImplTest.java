@@ -1,13 +1,24 @@
 package de.skuzzle.inject.conf;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.io.StringReader;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Provider;
 
@@ -19,9 +30,11 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.common.io.CharStreams;
 import com.google.inject.Binder;
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
 import com.google.inject.binder.LinkedBindingBuilder;
 import com.google.inject.binder.ScopedBindingBuilder;
 
@@ -42,17 +55,43 @@ public class DSLImplTest {
     private ContentTypeFactoryImpl contentTypeFactory;
 
     private final Key<DSLImplTest> selfType = Key.get(DSLImplTest.class);
+    private final CacheBudget budget = new CacheBudget(Long.MAX_VALUE);
+    private ResourceRegistry registry;
     private DSLImpl subject;
 
     @Before
     public void setUp() throws Exception {
         this.contentTypeFactory = new ContentTypeFactoryImpl(new BeanUtil());
-        this.subject = new DSLImpl(this.factory, this.contentTypeFactory);
+        this.registry = new ResourceRegistry(this.budget, new FileWatcher());
+        this.subject = newDSL();
 
         when(this.binder.bind(this.selfType)).thenReturn(this.linkedBuilder);
         when(this.linkedBuilder.toProvider(Mockito.any(Provider.class)))
                 .thenReturn(this.scopedBuilder);
         when(this.binder.getProvider(Injector.class)).thenReturn(() -> this.injector);
+        when(this.binder.getProvider(ResourceRegistry.class))
+                .thenReturn(() -> this.registry);
+    }
+
+    private DSLImpl newDSL() {
+        return new DSLImpl(this.factory, this.contentTypeFactory);
+    }
+
+    // resolves cached resources like the injector does when it is being created
+    private void resolveResources() {
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(this.binder, Mockito.atLeastOnce()).requestInjection(captor.capture());
+        captor.getAllValues().stream()
+                .filter(SharedResource.class::isInstance)
+                .map(SharedResource.class::cast)
+                .forEach(SharedResource::resolve);
+    }
+
+    private static Path mockPath() {
+        final Path path = mock(Path.class);
+        when(path.toAbsolutePath()).thenReturn(path);
+        when(path.normalize()).thenReturn(path);
+        return path;
     }
 
     @Test
@@ -60,7 +99,8 @@ public class DSLImplTest {
         final TextContentType contentType = mock(TextContentType.class);
         final TextResource resource = mock(TextResource.class);
 
-        when(contentType.createInstance(DSLImplTest.class, resource)).thenReturn(this);
+        when(contentType.createInstance(eq(DSLImplTest.class), any(TextResource.class)))
+                .thenReturn(this);
 
         this.subject
                 .resource(resource)
@@ -73,6 +113,61 @@ public class DSLImplTest {
 
         final Provider prov = captor.getValue();
         assertSame(this, prov.get());
+
+        final ArgumentCaptor<TextResource> resourceCaptor = ArgumentCaptor.forClass(
+                TextResource.class);
+        verify(contentType).createInstance(eq(DSLImplTest.class),
+                resourceCaptor.capture());
+        when(resource.openStream()).thenReturn(new StringReader("foo"));
+        assertEquals("foo",
+                CharStreams.toString(resourceCaptor.getValue().openStream()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBindAsync() throws Exception {
+        final TextContentType contentType = mock(TextContentType.class);
+        final TextResource resource = mock(TextResource.class);
+        final Key<CompletionStage<DSLImplTest>> asyncKey = Key.get(
+                new TypeLiteral<CompletionStage<DSLImplTest>>() {});
+        final LinkedBindingBuilder<SharedStage<DSLImplTest>> sharedBuilder =
+                mock(LinkedBindingBuilder.class);
+        final LinkedBindingBuilder<CompletionStage<DSLImplTest>> asyncBuilder =
+                mock(LinkedBindingBuilder.class);
+        final SharedStage<?>[] scoped = new SharedStage<?>[1];
+        when(this.binder.bind(any(Key.class))).thenReturn(sharedBuilder);
+        final com.google.inject.Provider<SharedStage<DSLImplTest>> scopedProvider =
+                () -> (SharedStage<DSLImplTest>) scoped[0];
+        Mockito.doReturn(scopedProvider).when(this.binder).getProvider(any(Key.class));
+        when(this.binder.bind(asyncKey)).thenReturn(asyncBuilder);
+        when(contentType.createInstance(eq(DSLImplTest.class), any(TextResource.class)))
+                .thenReturn(this);
+
+        this.subject
+                .resource(resource)
+                .containing(contentType)
+                .to(getClass())
+                .usingAsync(this.binder, Runnable::run);
+
+        final ArgumentCaptor<Key> keyCaptor = ArgumentCaptor.forClass(Key.class);
+        verify(this.binder, times(2)).bind(keyCaptor.capture());
+        final Key<?> sharedKey = keyCaptor.getAllValues().get(0);
+        assertEquals(new TypeLiteral<SharedStage<DSLImplTest>>() {},
+                sharedKey.getTypeLiteral());
+        assertNotNull(sharedKey.getAnnotation());
+        verify(this.binder).getProvider(sharedKey);
+
+        final ArgumentCaptor<Provider> sharedCaptor = ArgumentCaptor.forClass(
+                Provider.class);
+        verify(sharedBuilder).toProvider(sharedCaptor.capture());
+        scoped[0] = (SharedStage<?>) sharedCaptor.getValue().get();
+
+        final ArgumentCaptor<Provider> captor = ArgumentCaptor.forClass(Provider.class);
+        verify(asyncBuilder).toProvider(captor.capture());
+
+        final CompletionStage<?> stage = (CompletionStage<?>) captor.getValue().get();
+        assertSame(this, stage.toCompletableFuture().get());
+        assertNotSame(stage, captor.getValue().get());
     }
 
     @Test
@@ -83,6 +178,136 @@ public class DSLImplTest {
                 .using(this.binder);
     }
 
+    @Test
+    public void testBindCompact() throws Exception {
+        final Path path = mockPath();
+        final TextResource resource = mock(TextResource.class);
+        when(this.factory.newNioResource(path, StandardCharsets.UTF_8))
+                .thenReturn(resource);
+        when(this.factory.cache(Mockito.same(resource), Mockito.any(),
+                Mockito.eq(StandardCharsets.UTF_8), Mockito.eq(true),
+                Mockito.eq(true), Mockito.same(this.budget)))
+                .thenReturn(mock(CachedTextResource.class));
+        this.subject.constant()
+                .compact()
+                .pathResource(path)
+                .encodedWith(StandardCharsets.UTF_8)
+                .containing(mock(TextContentType.class))
+                .to(getClass())
+                .using(this.binder);
+        resolveResources();
+
+        verify(this.factory).cache(Mockito.same(resource), Mockito.any(),
+                Mockito.eq(StandardCharsets.UTF_8), Mockito.eq(true),
+                Mockito.eq(true), Mockito.same(this.budget));
+    }
+
+    @Test
+    public void testBindMappedFile() throws Exception {
+        final Path path = mockPath();
+        this.subject.mappedFileResource(path)
+                .encodedWith(StandardCharsets.UTF_8)
+                .containing(mock(TextContentType.class))
+                .to(getClass())
+                .using(this.binder);
+
+        verify(this.factory).newMappedFileResource(path, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testBindRefreshing() throws Exception {
+        final Path path = mockPath();
+        final TextResource resource = mock(TextResource.class);
+        final CachedTextResource cached = new CachedTextResource(resource,
+                new TimestampCacheStrategy(), new ResourceUtil(), null, false, false);
+        when(this.factory.newNioResource(path, null)).thenReturn(resource);
+        when(this.factory.cache(Mockito.same(resource),
+                Mockito.any(TimestampCacheStrategy.class), Mockito.isNull(Charset.class),
+                Mockito.eq(false), Mockito.eq(false), Mockito.same(this.budget)))
+                .thenReturn(cached);
+
+        this.subject.refreshing(1, TimeUnit.MINUTES)
+                .pathResource(path)
+                .containing(mock(TextContentType.class))
+                .to(getClass())
+                .using(this.binder);
+        resolveResources();
+
+        verify(this.factory).cache(Mockito.same(resource),
+                Mockito.any(TimestampCacheStrategy.class), Mockito.isNull(Charset.class),
+                Mockito.eq(false), Mockito.eq(false), Mockito.same(this.budget));
+    }
+
+    @Test
+    public void testShareCachedResource() throws Exception {
+        final Path path = mockPath();
+        final TextResource resource = mock(TextResource.class);
+        when(this.factory.newNioResource(path, StandardCharsets.UTF_8))
+                .thenReturn(resource);
+        when(this.factory.cache(Mockito.same(resource), Mockito.any(),
+                Mockito.eq(StandardCharsets.UTF_8), Mockito.eq(false),
+                Mockito.eq(true), Mockito.same(this.budget))).thenReturn(
+                        new CachedTextResource(resource,
+                                new TimestampCacheStrategy(), new ResourceUtil(),
+                                StandardCharsets.UTF_8, false));
+
+        for (int i = 0; i < 2; ++i) {
+            newDSL().changing()
+                    .pathResource(path)
+                    .encodedWith(StandardCharsets.UTF_8)
+                    .containing(mock(TextContentType.class))
+                    .to(getClass())
+                    .using(this.binder);
+        }
+        resolveResources();
+
+        verify(this.factory, Mockito.times(1)).cache(Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.anyBoolean(), Mockito.anyBoolean(),
+                Mockito.any());
+    }
+
+    @Test
+    public void testDoNotShareDifferentCharset() throws Exception {
+        final Path path = mockPath();
+        when(this.factory.cache(Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.anyBoolean(), Mockito.anyBoolean(), Mockito.any())).then(
+                        invocation -> mock(CachedTextResource.class));
+
+        newDSL().changing()
+                .pathResource(path)
+                .encodedWith(StandardCharsets.UTF_8)
+                .containing(mock(TextContentType.class))
+                .to(getClass())
+                .using(this.binder);
+        newDSL().changing()
+                .pathResource(path)
+                .encodedWith(StandardCharsets.ISO_8859_1)
+                .containing(mock(TextContentType.class))
+                .to(getClass())
+                .using(this.binder);
+        resolveResources();
+
+        verify(this.factory, Mockito.times(2)).cache(Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.anyBoolean(), Mockito.anyBoolean(),
+                Mockito.any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRefreshingInvalidInterval() throws Exception {
+        this.subject.refreshing(0, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRefreshingNullUnit() throws Exception {
+        this.subject.refreshing(1, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWatchNotExistingDirectory() throws Exception {
+        this.subject.watching()
+                .fileResource(new File("notExisting/foo.txt"));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testBindInvalidURL() throws Exception {
         this.subject.changing()
@@ -118,11 +343,21 @@ public class DSLImplTest {
         this.subject.fileResource(null);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullTest4Watching() throws Exception {
+        this.subject.watching().fileResource(null);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testNullTest5() throws Exception {
         this.subject.pathResource(null);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullTest5Mapped() throws Exception {
+        this.subject.mappedFileResource(null);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testNullTest6() throws Exception {
         this.subject.urlResource((String) null);
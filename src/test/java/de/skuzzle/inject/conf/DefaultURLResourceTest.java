@@ -58,4 +58,15 @@ public class DefaultURLResourceTest {
         when(this.util.getLastModifiedTime(this.url)).thenReturn(1337L);
         assertEquals(1337L, this.subject.getLastModifiedTime());
     }
+
+    @Test
+    public void testJarEntryLastModified() throws Exception {
+        final URL jarUrl = new URL("jar:file:/foo.jar!/foo/bar");
+        this.subject = new DefaultURLResource(this.util, null, jarUrl);
+        when(this.util.isJarEntry(jarUrl)).thenReturn(true);
+        when(this.util.getLastModifiedTime(jarUrl)).thenReturn(1337L, 1338L);
+
+        assertEquals(1337L, this.subject.getLastModifiedTime());
+        assertEquals(1338L, this.subject.getLastModifiedTime());
+    }
 }
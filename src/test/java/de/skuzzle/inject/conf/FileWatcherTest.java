@@ -0,0 +1,108 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileWatcherTest {
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private FileWatcher subject;
+
+    private static class LatchListener implements FileWatcher.Listener {
+        private final CountDownLatch changed = new CountDownLatch(1);
+
+        @Override
+        public void fileChanged() {
+            this.changed.countDown();
+        }
+
+        @Override
+        public void watchCancelled() {}
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.subject = new FileWatcher(FileSystems.getDefault());
+    }
+
+    @Test
+    public void testNotifyOnModification() throws Exception {
+        final File file = this.tempFolder.newFile();
+        final LatchListener listener = new LatchListener();
+        this.subject.register(file.toPath(), listener);
+
+        Files.write(file.toPath(), "foo".getBytes());
+        assertTrue(listener.changed.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testNotifyOnCreation() throws Exception {
+        final File file = new File(this.tempFolder.getRoot(), "notYetExisting");
+        final LatchListener listener = new LatchListener();
+        this.subject.register(file.toPath(), listener);
+
+        Files.write(file.toPath(), "foo".getBytes());
+        assertTrue(listener.changed.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSameDirectory() throws Exception {
+        final File file1 = this.tempFolder.newFile();
+        final File file2 = this.tempFolder.newFile();
+        final LatchListener listener1 = new LatchListener();
+        final LatchListener listener2 = new LatchListener();
+        this.subject.register(file1.toPath(), listener1);
+        this.subject.register(file2.toPath(), listener2);
+
+        Files.write(file2.toPath(), "foo".getBytes());
+        assertTrue(listener2.changed.await(30, TimeUnit.SECONDS));
+        Files.write(file1.toPath(), "foo".getBytes());
+        assertTrue(listener1.changed.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStopWhenUnused() throws Exception {
+        this.subject = new FileWatcher(FileSystems.getDefault(), 10);
+        LatchListener listener = new LatchListener();
+        this.subject.register(this.tempFolder.newFile().toPath(), listener);
+        assertTrue(this.subject.isRunning());
+
+        listener = null;
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (this.subject.isRunning() && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertFalse(this.subject.isRunning());
+    }
+
+    @Test
+    public void testRestartAfterStop() throws Exception {
+        this.subject = new FileWatcher(FileSystems.getDefault(), 10);
+        this.subject.register(this.tempFolder.newFile().toPath(), new LatchListener());
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (this.subject.isRunning() && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        final File file = this.tempFolder.newFile();
+        final LatchListener listener = new LatchListener();
+        this.subject.register(file.toPath(), listener);
+        Files.write(file.toPath(), "foo".getBytes());
+        assertTrue(listener.changed.await(30, TimeUnit.SECONDS));
+    }
+}
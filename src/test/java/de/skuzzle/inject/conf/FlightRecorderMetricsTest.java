@@ -0,0 +1,175 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlightRecorderMetricsTest {
+
+    public interface Settings {
+        String getName();
+    }
+
+    @Mock
+    private TextResource resource;
+
+    private Recording recording;
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("reguice", ".jfr");
+        this.recording = new Recording();
+        this.recording.enable("de.skuzzle.inject.conf.ResourceLoad");
+        this.recording.enable("de.skuzzle.inject.conf.FreshnessCheck");
+        this.recording.enable("de.skuzzle.inject.conf.ContentParse");
+        this.recording.enable("de.skuzzle.inject.conf.ProxyCreation");
+        this.recording.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.recording.close();
+        Files.deleteIfExists(this.file);
+    }
+
+    private List<RecordedEvent> stopRecording(String eventName) throws Exception {
+        this.recording.stop();
+        this.recording.dump(this.file);
+        return RecordingFile.readAllEvents(this.file).stream()
+                .filter(event -> eventName.equals(event.getEventType().getName()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testResourceEvents() throws Exception {
+        when(this.resource.openStream()).then(
+                invocation -> new StringReader("name=reguice") {
+
+                    @Override
+                    public int read(char[] cbuf, int off, int len) throws IOException {
+                        // slow I/O must be covered by the event's duration
+                        try {
+                            Thread.sleep(20);
+                        } catch (final InterruptedException e) {
+                            throw new InterruptedIOException();
+                        }
+                        return super.read(cbuf, off, len);
+                    }
+                });
+        when(this.resource.toString()).thenReturn("mockResource");
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                Resources.bind()
+                        .changing()
+                        .resource(FlightRecorderMetricsTest.this.resource)
+                        .containingProperties()
+                        .to(Settings.class)
+                        .named("jfr")
+                        .using(binder());
+            }
+        });
+        final Key<Settings> key = Key.get(Settings.class, Names.named("jfr"));
+        injector.getInstance(key);
+
+        final List<RecordedEvent> events = stopRecording(
+                "de.skuzzle.inject.conf.ResourceLoad");
+        assertEquals(1, events.size());
+        final RecordedEvent event = events.get(0);
+        assertEquals(key.toString(), event.getString("binding"));
+        assertEquals("mockResource", event.getString("location"));
+        assertEquals(12L, event.getLong("size"));
+        assertTrue(event.getDuration().toMillis() >= 20);
+        assertTrue(event.getEndTime().isAfter(event.getStartTime()));
+    }
+
+    @Test
+    public void testUncachedResourceEvents() throws Exception {
+        when(this.resource.openStream()).then(
+                invocation -> new StringReader("name=reguice"));
+        when(this.resource.toString()).thenReturn("mockResource");
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                Resources.bind()
+                        .resource(FlightRecorderMetricsTest.this.resource)
+                        .containingProperties()
+                        .to(Settings.class)
+                        .named("jfr")
+                        .using(binder());
+            }
+        });
+        final Key<Settings> key = Key.get(Settings.class, Names.named("jfr"));
+        injector.getInstance(key);
+        injector.getInstance(key);
+
+        final List<RecordedEvent> events = stopRecording(
+                "de.skuzzle.inject.conf.ResourceLoad");
+        assertEquals(2, events.size());
+        for (final RecordedEvent event : events) {
+            assertEquals(key.toString(), event.getString("binding"));
+            assertEquals("mockResource", event.getString("location"));
+            assertEquals(12L, event.getLong("size"));
+        }
+    }
+
+    @Test
+    public void testProxyEvent() throws Exception {
+        final Object event = FlightRecording.beginProxyCreation();
+        FlightRecording.proxyCreated(event, Settings.class);
+
+        final List<RecordedEvent> events = stopRecording(
+                "de.skuzzle.inject.conf.ProxyCreation");
+        assertEquals(1, events.size());
+        assertEquals(Settings.class.getName(),
+                events.get(0).getClass("type").getName());
+    }
+
+    @Test
+    public void testOnlyMeasureEnabledEvents() throws Exception {
+        this.recording.disable("de.skuzzle.inject.conf.CacheRefresh");
+        final ContentMetrics metrics = new ContentMetrics();
+        metrics.add(new BindingMetrics(Key.get(Settings.class), "location"));
+
+        // enabled in the running recording
+        assertNotNull(metrics.startLoad());
+        // not enabled and no ResourceMetrics bound
+        assertNull(metrics.startRefresh());
+        assertNull(metrics.start());
+
+        this.recording.stop();
+        assertNull(metrics.startLoad());
+        assertNull(FlightRecording.beginProxyCreation());
+    }
+}
@@ -0,0 +1,207 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class HttpURLResourceTest {
+
+    private HttpServer server;
+    private volatile String content;
+    private volatile String etag;
+    // sent as Last-Modified header if not null
+    private volatile String lastModified;
+    private final List<Integer> responses = Collections.synchronizedList(
+            new ArrayList<>());
+
+    // while set, requests wait until it is counted down
+    private volatile CountDownLatch release;
+    private final CountDownLatch received = new CountDownLatch(1);
+
+    private ResourceUtil util;
+    private HttpURLResource subject;
+
+    @Before
+    public void setUp() throws Exception {
+        this.content = "äöü";
+        this.etag = "\"1\"";
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/resource", this::handle);
+        this.server.start();
+
+        final URL url = new URL("http", "127.0.0.1",
+                this.server.getAddress().getPort(), "/resource");
+        this.util = new ResourceUtil();
+        this.subject = new HttpURLResource(this.util, url, null);
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        this.received.countDown();
+        final CountDownLatch latch = this.release;
+        if (latch != null) {
+            try {
+                latch.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        final String ifNoneMatch = exchange.getRequestHeaders()
+                .getFirst("If-None-Match");
+        exchange.getResponseHeaders().add("ETag", this.etag);
+        if (this.lastModified != null) {
+            exchange.getResponseHeaders().add("Last-Modified", this.lastModified);
+        }
+        if (this.etag.equals(ifNoneMatch)) {
+            this.responses.add(304);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        final byte[] body = this.content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type",
+                "text/plain; charset=UTF-8");
+        this.responses.add(200);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String readText() throws IOException {
+        try (Reader reader = this.subject.openStream()) {
+            return CharStreams.toString(reader);
+        }
+    }
+
+    private void change(String newContent, String newEtag) {
+        this.content = newContent;
+        this.etag = newEtag;
+    }
+
+    @Test
+    public void testCharsetFromContentType() throws Exception {
+        assertEquals("äöü", readText());
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        assertEquals("äöü", readText());
+        assertEquals("äöü", readText());
+        assertEquals(Arrays.asList(200, 304), this.responses);
+    }
+
+    @Test
+    public void testModified() throws Exception {
+        assertEquals("äöü", readText());
+        change("xyz", "\"2\"");
+        assertEquals("xyz", readText());
+        assertEquals(Arrays.asList(200, 200), this.responses);
+    }
+
+    @Test
+    public void testSingleRoundTripForChangeCheck() throws Exception {
+        final CachedTextResource cached = new CachedTextResource(this.subject,
+                new TimestampCacheStrategy(), this.util, StandardCharsets.UTF_8,
+                false);
+        cached.openBinaryStream().close();
+        this.responses.clear();
+
+        // unchanged: only a conditional request
+        cached.openBinaryStream().close();
+        assertEquals(Arrays.asList(304), this.responses);
+        this.responses.clear();
+
+        // changed: the content is received by the freshness check
+        Thread.sleep(5);
+        change("xyz", "\"2\"");
+        final byte[] bytes = ByteStreams.toByteArray(cached.openBinaryStream());
+        assertEquals("xyz", new String(bytes, StandardCharsets.UTF_8));
+        assertEquals(Arrays.asList(200), this.responses);
+    }
+
+    @Test
+    public void testLastModifiedChangesWithContent() throws Exception {
+        final long first = this.subject.getLastModifiedTime();
+        Thread.sleep(5);
+        change("xyz", "\"2\"");
+        assertNotEquals(first, this.subject.getLastModifiedTime());
+    }
+
+    @Test
+    public void testChangedEtagWithSameLastModified() throws Exception {
+        this.lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+        final CachedTextResource cached = new CachedTextResource(this.subject,
+                new TimestampCacheStrategy(), this.util, StandardCharsets.UTF_8,
+                false);
+        final long first = this.subject.getLastModifiedTime();
+        cached.openBinaryStream().close();
+
+        change("xyz", "\"2\"");
+        final byte[] bytes = ByteStreams.toByteArray(cached.openBinaryStream());
+        assertEquals("xyz", new String(bytes, StandardCharsets.UTF_8));
+        assertTrue(this.subject.getLastModifiedTime() > first);
+    }
+
+    @Test
+    public void testSingleRequestForConcurrentCallers() throws Exception {
+        this.release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> first = executor.submit(this::readText);
+            this.received.await();
+            final Future<String> second = executor.submit(this::readText);
+            Thread.sleep(200);
+            this.release.countDown();
+
+            assertEquals("äöü", first.get());
+            assertEquals("äöü", second.get());
+            assertEquals(Arrays.asList(200), this.responses);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void testReadTimeout() throws Exception {
+        this.release = new CountDownLatch(1);
+        final URL url = new URL("http", "127.0.0.1",
+                this.server.getAddress().getPort(), "/resource");
+        this.subject = new HttpURLResource(this.util, url, null, 1000, 100);
+        try {
+            this.subject.openBinaryStream();
+        } finally {
+            this.release.countDown();
+        }
+    }
+}
@@ -2,13 +2,22 @@ package de.skuzzle.inject.conf;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -76,7 +85,7 @@ public class JsonContentTypeTest {
     private TextResource resource;
 
     private final JsonContentType subject = new JsonContentType(new BeanUtil(),
-            new GsonBuilder());
+            new GsonBuilder(), false);
 
     @Test
     public void testCreateInstance() throws Exception {
@@ -132,4 +141,98 @@ public class JsonContentTypeTest {
 
         assertEquals(TestEnum.Bar, inst.getEnum());
     }
+
+    @Test
+    public void testReturnSameNestedInstance() throws Exception {
+        final Reader reader = new StringReader(this.json2);
+        when(this.resource.openStream()).thenReturn(reader);
+        final Sample2 inst = this.subject.createInstance(Sample2.class, this.resource);
+
+        assertSame(inst.getSample(), inst.getSample());
+        assertSame(inst.getStringList(), inst.getStringList());
+    }
+
+    @Test
+    public void testObjectMethods() throws Exception {
+        final Reader reader = new StringReader(this.json2);
+        when(this.resource.openStream()).thenReturn(reader);
+        final Sample2 inst = this.subject.createInstance(Sample2.class, this.resource);
+
+        assertTrue(inst.equals(inst));
+        assertEquals(System.identityHashCode(inst), inst.hashCode());
+        assertTrue(inst.toString().startsWith(Sample2.class.getName()));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final Reader reader = new StringReader(this.json2);
+        when(this.resource.openStream()).thenReturn(reader);
+        final Sample2 inst = this.subject.createInstance(Sample2.class, this.resource);
+
+        final int threads = 8;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Sample3>> results = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                results.add(executor.submit(() -> {
+                    barrier.await();
+                    assertEquals(1337, inst.getFoo());
+                    assertEquals(Arrays.asList("foo", "bar"), inst.getStringList());
+                    return inst.getSample();
+                }));
+            }
+            final Sample3 first = results.get(0).get();
+            for (final Future<Sample3> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCreateInstanceTwice() throws Exception {
+        when(this.resource.openStream()).thenReturn(new StringReader(this.json),
+                new StringReader("{ foo: 2 }"));
+        this.subject.prepare(Sample.class);
+        this.subject.warmUp();
+
+        assertEquals(1, this.subject.createInstance(Sample.class, this.resource).foo);
+        assertEquals(2, this.subject.createInstance(Sample.class, this.resource).foo);
+    }
+
+    @Test
+    public void testWarmUpInterface() throws Exception {
+        final BeanUtil beanUtil = spy(new BeanUtil());
+        final JsonContentType subject = new JsonContentType(beanUtil,
+                new GsonBuilder(), false);
+        subject.prepare(Sample2.class);
+        subject.warmUp();
+
+        verify(beanUtil).getBeanInterface(Sample2.class);
+    }
+
+    @Test
+    public void testCreateInterfaceLazy() throws Exception {
+        final JsonContentType subject = new JsonContentType(new BeanUtil(),
+                new GsonBuilder(), true);
+        when(this.resource.openStream()).thenReturn(new StringReader(this.json2));
+        final Sample2 inst = subject.createInstance(Sample2.class, this.resource);
+
+        assertEquals(1337, inst.getFoo());
+        assertEquals("xyz", inst.getBar());
+        assertEquals(null, inst.getUnknown());
+        assertEquals("abc", inst.getSample().getObject());
+        assertArrayEquals(new int[] { 1, 2, 3 }, inst.getArray());
+        assertEquals(Arrays.asList("foo", "bar"), inst.getStringList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateInterfaceLazyNoObject() throws Exception {
+        final JsonContentType subject = new JsonContentType(new BeanUtil(),
+                new GsonBuilder(), true);
+        when(this.resource.openStream()).thenReturn(new StringReader("[1, 2]"));
+        subject.createInstance(Sample2.class, this.resource);
+    }
 }
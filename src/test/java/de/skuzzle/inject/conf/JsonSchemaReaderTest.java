@@ -0,0 +1,105 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.MalformedJsonException;
+
+public class JsonSchemaReaderTest {
+
+    private static interface Root {
+        int getFoo();
+
+        Nested getNested();
+
+        Nested[] getNestedArray();
+
+        List<Nested> getNestedList();
+
+        Object getAnything();
+    }
+
+    private static interface Nested {
+        String getName();
+    }
+
+    private final BeanUtil beanUtil = new BeanUtil();
+    private final JsonSchemaReader subject = new JsonSchemaReader(this.beanUtil,
+            new Gson().getAdapter(JsonElement.class));
+
+    private JsonObject read(String json) throws Exception {
+        return this.subject.read(new StringReader(json),
+                this.beanUtil.getBeanInterface(Root.class));
+    }
+
+    @Test
+    public void testSkipUnknownMembers() throws Exception {
+        final JsonObject result = read("{ foo: 1, bar: { x: [1, 2] }, baz: 'x' }");
+
+        assertEquals(1, result.entrySet().size());
+        assertEquals(1, result.get("foo").getAsInt());
+    }
+
+    @Test
+    public void testPruneNestedObject() throws Exception {
+        final JsonObject result = read("{ nested: { name: 'a', unknown: 1 } }");
+        final JsonObject nested = result.getAsJsonObject("nested");
+
+        assertEquals("a", nested.get("name").getAsString());
+        assertFalse(nested.has("unknown"));
+    }
+
+    @Test
+    public void testPruneArrayElements() throws Exception {
+        final JsonObject result = read("{ " +
+                "nestedArray: [ { name: 'a', unknown: 1 } ], " +
+                "nestedList: [ { name: 'b', unknown: 2 } ] }");
+        final JsonObject arrayElement = result.getAsJsonArray("nestedArray")
+                .get(0).getAsJsonObject();
+        final JsonObject listElement = result.getAsJsonArray("nestedList")
+                .get(0).getAsJsonObject();
+
+        assertEquals("a", arrayElement.get("name").getAsString());
+        assertFalse(arrayElement.has("unknown"));
+        assertEquals("b", listElement.get("name").getAsString());
+        assertFalse(listElement.has("unknown"));
+    }
+
+    @Test
+    public void testKeepUntypedObject() throws Exception {
+        final JsonObject result = read("{ anything: { a: 1, b: 2 } }");
+
+        assertTrue(result.getAsJsonObject("anything").has("b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTopLevelNoObject() throws Exception {
+        read("[1, 2]");
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testTrailingContent() throws Exception {
+        read("{ foo: 1 } { foo: 2 }");
+    }
+
+    @Test
+    public void testTrailingWhitespaceAndComments() throws Exception {
+        final JsonObject result = read("{ foo: 1 } \n// comment\n");
+        assertEquals(1, result.get("foo").getAsInt());
+    }
+
+    @Test(expected = MalformedJsonException.class)
+    public void testMalformed() throws Exception {
+        read("{ foo: 1, bar: { ]");
+    }
+}
@@ -0,0 +1,136 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+
+public class LazyJsonMembersTest {
+
+    private final TypeAdapter<JsonElement> adapter = new Gson().getAdapter(
+            JsonElement.class);
+
+    private LazyJsonMembers index(String json) {
+        return LazyJsonMembers.index(json, this.adapter);
+    }
+
+    private static JsonElement parse(String json) {
+        return new JsonParser().parse(json);
+    }
+
+    @Test
+    public void testStrictJson() throws Exception {
+        final LazyJsonMembers subject = index("{\"a\": 1, \"b\": \"x,}\", " +
+                "\"c\": [1, {\"d\": \"]\"}], \"e\": null, \"f\": true}");
+
+        assertEquals(parse("1"), subject.get("a"));
+        assertEquals(parse("'x,}'"), subject.get("b"));
+        assertEquals(parse("[1, {\"d\": \"]\"}]"), subject.get("c"));
+        assertEquals(parse("null"), subject.get("e"));
+        assertEquals(parse("true"), subject.get("f"));
+        assertNull(subject.get("unknown"));
+    }
+
+    @Test
+    public void testLenientJson() throws Exception {
+        final LazyJsonMembers subject = index("// comment\n" +
+                "{ a: 1; 'b' = 'it\\'s'; /* comment */ c => -1.5e3, # comment\n" +
+                "  d: { x: '}' } }");
+
+        assertEquals(parse("1"), subject.get("a"));
+        assertEquals(parse("\"it's\""), subject.get("b"));
+        assertEquals(parse("-1.5e3"), subject.get("c"));
+        assertEquals(parse("{ x: '}' }"), subject.get("d"));
+    }
+
+    @Test
+    public void testEscapedName() throws Exception {
+        final LazyJsonMembers subject = index("{ \"a\\u0062\": 1 }");
+        assertEquals(parse("1"), subject.get("ab"));
+    }
+
+    @Test
+    public void testEmptyObject() throws Exception {
+        assertNull(index(" { } ").get("a"));
+    }
+
+    @Test
+    public void testNestedObject() throws Exception {
+        final JsonMembers subject = index("{ a: { b: { c: 'x' } }, d: 1 }");
+
+        assertEquals(parse("'x'"), subject.getObject("a").getObject("b").get("c"));
+        assertNull(subject.getObject("d"));
+        assertNull(subject.getObject("unknown"));
+    }
+
+    @Test
+    public void testResolveMemberRepeatedly() throws Exception {
+        final JsonMembers subject = index("{ a: { b: 1 }, c: [1, 2] }");
+
+        assertEquals(parse("[1, 2]"), subject.get("c"));
+        assertEquals(parse("[1, 2]"), subject.get("c"));
+        assertSame(subject.getObject("a"), subject.getObject("a"));
+        assertEquals(parse("{ b: 1 }"), subject.get("a"));
+    }
+
+    @Test
+    public void testResolveObjectAfterElement() throws Exception {
+        final JsonMembers subject = index("{ a: { b: 1 } }");
+
+        assertEquals(parse("{ b: 1 }"), subject.get("a"));
+        assertEquals(parse("1"), subject.getObject("a").get("b"));
+    }
+
+    @Test
+    public void testMalformedValueDetectedOnAccess() throws Exception {
+        final LazyJsonMembers subject = index("{ a: 1, b: [1 : 2] }");
+        assertEquals(parse("1"), subject.get("a"));
+        try {
+            subject.get("b");
+        } catch (final JsonSyntaxException expected) {
+            return;
+        }
+        throw new AssertionError("expected JsonSyntaxException");
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testMissingSeparator() throws Exception {
+        index("{ a: 1 b: 2 }");
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testUnterminated() throws Exception {
+        index("{ a: 'abc }");
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testTrailingContent() throws Exception {
+        index("{\"foo\": \"a\"} garbage");
+    }
+
+    @Test
+    public void testTrailingWhitespaceAndComments() throws Exception {
+        assertEquals(parse("'a'"), index("{ foo: 'a' } \n// comment\n").get("foo"));
+    }
+
+    @Test
+    public void testResolveEmptyNestedObject() throws Exception {
+        final JsonMembers subject = index("{ a: {}, b: 1 }");
+
+        assertNull(subject.getObject("a").get("x"));
+        assertEquals(parse("1"), subject.get("b"));
+        assertEquals(parse("{}"), subject.get("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoObject() throws Exception {
+        index("[1, 2]");
+    }
+}
@@ -0,0 +1,125 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+
+public class MappedFileResourceTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private ResourceUtil util;
+    private Path path;
+    private MappedFileResource subject;
+
+    @Before
+    public void setUp() throws Exception {
+        this.util = spy(new ResourceUtil());
+        this.path = this.folder.newFile().toPath();
+        write("äöü", 1000);
+        this.subject = new MappedFileResource(this.util, this.path,
+                StandardCharsets.UTF_8);
+    }
+
+    private void write(String content, long lastModified) throws Exception {
+        Files.write(this.path, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(this.path, FileTime.fromMillis(lastModified));
+    }
+
+    @Test
+    public void testOpenStream() throws Exception {
+        try (Reader reader = this.subject.openStream()) {
+            assertEquals("äöü", CharStreams.toString(reader));
+        }
+    }
+
+    @Test
+    public void testOpenBinaryStream() throws Exception {
+        try (InputStream in = this.subject.openBinaryStream()) {
+            assertArrayEquals("äöü".getBytes(StandardCharsets.UTF_8),
+                    ByteStreams.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testWriteTo() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long written = this.subject.writeTo(out);
+
+        assertEquals(6, written);
+        assertArrayEquals("äöü".getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void testWriteToChannel() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long written = this.subject.writeTo(Channels.newChannel(out));
+
+        assertEquals(6, written);
+        assertArrayEquals("äöü".getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void testIndependentViews() throws Exception {
+        final ByteBuffer first = this.subject.getContent();
+        first.get();
+        assertEquals(6, this.subject.getContent().remaining());
+    }
+
+    @Test
+    public void testMapOnlyOnce() throws Exception {
+        this.subject.getContent();
+        this.subject.getContent();
+        verify(this.util, times(1)).map(this.path);
+    }
+
+    @Test
+    public void testRemapOnChange() throws Exception {
+        this.subject.getContent();
+        write("xyz!", 2000);
+
+        try (Reader reader = this.subject.openStream()) {
+            assertEquals("xyz!", CharStreams.toString(reader));
+        }
+        verify(this.util, times(2)).map(this.path);
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        write("", 3000);
+        assertEquals(-1, this.subject.openBinaryStream().read());
+    }
+
+    @Test
+    public void testGetLastModified() throws Exception {
+        assertEquals(1000, this.subject.getLastModifiedTime());
+    }
+
+    @Test
+    public void testReadOnlyView() throws Exception {
+        final ByteBuffer content = this.subject.getContent();
+        assertTrue(content.isReadOnly());
+    }
+}
@@ -0,0 +1,85 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import javax.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.inject.ProvisionException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MemoizingProviderTest {
+
+    @Mock
+    private TextResource wrapped;
+    @Mock
+    private CachingStrategy strategy;
+    @Mock
+    private Provider<Object> delegate;
+
+    private CachedTextResource resource;
+    private MemoizingProvider<Object> subject;
+
+    @Before
+    public void setUp() throws Exception {
+        this.resource = new CachedTextResource(this.wrapped, this.strategy,
+                new ResourceUtil(), null, false);
+        this.subject = new MemoizingProvider<>(this.resource, this.delegate);
+
+        when(this.wrapped.openStream()).thenReturn(new StringReader("foo"),
+                new StringReader("bar"));
+        when(this.delegate.get()).then(invocation -> {
+            this.resource.openStream().close();
+            return new Object();
+        });
+    }
+
+    @Test
+    public void testCreateOnlyOnce() throws Exception {
+        final Object first = this.subject.get();
+
+        assertSame(first, this.subject.get());
+        verify(this.delegate, times(1)).get();
+    }
+
+    @Test
+    public void testRecreateOnChange() throws Exception {
+        final Object first = this.subject.get();
+        when(this.strategy.refreshTextCache(this.resource)).thenReturn(true, false);
+
+        CachedTextResourceTest.awaitNextCheck();
+        final Object second = this.subject.get();
+        assertNotSame(first, second);
+        assertSame(second, this.subject.get());
+        verify(this.delegate, times(2)).get();
+    }
+
+    @Test
+    public void testMemoizeNull() throws Exception {
+        doReturn(null).when(this.delegate).get();
+
+        this.subject.get();
+        this.subject.get();
+        verify(this.delegate, times(1)).get();
+    }
+
+    @Test(expected = ProvisionException.class)
+    public void testVersionCheckFails() throws Exception {
+        this.subject.get();
+        when(this.strategy.refreshTextCache(this.resource)).thenThrow(IOException.class);
+        this.subject.get();
+    }
+}
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 
@@ -58,4 +59,12 @@ public class NioResourceTest {
 
         assertSame(in, actual);
     }
+
+    @Test
+    public void testWriteToChannel() throws Exception {
+        final WritableByteChannel channel = mock(WritableByteChannel.class);
+        when(this.util.transferFrom(this.path, channel)).thenReturn(1337L);
+
+        assertEquals(1337L, this.subject.writeTo(channel));
+    }
 }
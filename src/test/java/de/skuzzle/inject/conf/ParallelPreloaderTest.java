@@ -0,0 +1,138 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Provider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.CreationException;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Singleton;
+import com.google.inject.name.Names;
+
+public class ParallelPreloaderTest {
+
+    private static class CountingProvider implements Provider<String> {
+        private final String value;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile Thread lastThread;
+
+        CountingProvider(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String get() {
+            this.calls.incrementAndGet();
+            this.lastThread = Thread.currentThread();
+            if (this.value == null) {
+                throw new IllegalStateException("failed to load");
+            }
+            return this.value;
+        }
+    }
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        this.pool = new ForkJoinPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        this.pool.shutdownNow();
+    }
+
+    private Injector createInjector(CountingProvider singleton,
+            CountingProvider unscoped, CountingProvider foreign) {
+        return createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(String.class).annotatedWith(Names.named("singleton"))
+                        .toProvider(new ResourceProvider<>(singleton))
+                        .in(Singleton.class);
+                bind(String.class).annotatedWith(Names.named("unscoped"))
+                        .toProvider(new ResourceProvider<>(unscoped));
+                bind(String.class).annotatedWith(Names.named("foreign"))
+                        .toProvider(foreign)
+                        .in(Singleton.class);
+            }
+        });
+    }
+
+    private Injector createInjector(Module module) {
+        return Guice.createInjector(module,
+                binder -> Resources.preloadInParallel(binder, this.pool));
+    }
+
+    @Test
+    public void testPreloadSingletons() throws Exception {
+        final CountingProvider singleton = new CountingProvider("foo");
+        final CountingProvider unscoped = new CountingProvider("bar");
+        final CountingProvider foreign = new CountingProvider("baz");
+        final Injector injector = createInjector(singleton, unscoped, foreign);
+
+        assertEquals(1, singleton.calls.get());
+        assertTrue(singleton.lastThread instanceof ForkJoinWorkerThread);
+        assertEquals(0, unscoped.calls.get());
+        assertEquals(0, foreign.calls.get());
+
+        assertEquals("foo", injector.getInstance(
+                Key.get(String.class, Names.named("singleton"))));
+        assertEquals(1, singleton.calls.get());
+    }
+
+    @Test
+    public void testReportAllFailures() throws Exception {
+        final CountingProvider first = new CountingProvider(null);
+        final CountingProvider second = new CountingProvider(null);
+        try {
+            createInjector(new AbstractModule() {
+
+                @Override
+                protected void configure() {
+                    bind(String.class).annotatedWith(Names.named("first"))
+                            .toProvider(new ResourceProvider<>(first))
+                            .in(Singleton.class);
+                    bind(String.class).annotatedWith(Names.named("second"))
+                            .toProvider(new ResourceProvider<>(second))
+                            .in(Singleton.class);
+                }
+            });
+            fail("Expected CreationException");
+        } catch (final CreationException e) {
+            final String message = e.getMessage();
+            assertTrue(message, message.contains("value=first"));
+            assertTrue(message, message.contains("value=second"));
+        }
+        assertEquals(1, first.calls.get());
+        assertEquals(1, second.calls.get());
+    }
+
+    @Test
+    public void testProvideFreshInstanceAfterPreloaded() throws Exception {
+        final CountingProvider delegate = new CountingProvider("foo");
+        final ResourceProvider<String> subject = new ResourceProvider<>(delegate);
+
+        subject.preload();
+        assertEquals("foo", subject.get());
+        assertEquals(1, delegate.calls.get());
+        assertEquals("foo", subject.get());
+        assertEquals(2, delegate.calls.get());
+    }
+}
@@ -0,0 +1,137 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.Scanner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.common.base.Strings;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReaderSessionTest {
+
+    @Mock
+    private TextResource resource;
+
+    private ReaderSession subject;
+
+    @Before
+    public void setUp() throws Exception {
+        this.subject = new ReaderSession(this.resource);
+    }
+
+    @Test
+    public void testReadIncrementally() throws Exception {
+        when(this.resource.openStream()).thenReturn(new StringReader("abcdef"));
+        final CharBuffer buffer = CharBuffer.allocate(4);
+
+        assertEquals(4, this.subject.read(buffer));
+        buffer.flip();
+        assertEquals("abcd", buffer.toString());
+        buffer.clear();
+
+        assertEquals(2, this.subject.read(buffer));
+        buffer.flip();
+        assertEquals("ef", buffer.toString());
+        buffer.clear();
+
+        assertEquals(-1, this.subject.read(buffer));
+        verify(this.resource, times(1)).openStream();
+    }
+
+    @Test
+    public void testRestartAfterEnd() throws Exception {
+        final Reader first = Mockito.spy(new StringReader("ab"));
+        when(this.resource.openStream()).thenReturn(first, new StringReader("ab"));
+        final CharBuffer buffer = CharBuffer.allocate(4);
+
+        this.subject.read(buffer);
+        assertEquals(-1, this.subject.read(buffer));
+        verify(first).close();
+
+        buffer.clear();
+        assertEquals(2, this.subject.read(buffer));
+        verify(this.resource, times(2)).openStream();
+    }
+
+    @Test
+    public void testResetOnException() throws Exception {
+        final Reader failing = mock(Reader.class);
+        when(failing.read(Mockito.any(CharBuffer.class))).thenThrow(IOException.class);
+        when(this.resource.openStream()).thenReturn(failing, new StringReader("ab"));
+        final CharBuffer buffer = CharBuffer.allocate(4);
+
+        try {
+            this.subject.read(buffer);
+        } catch (final IOException expected) {
+            verify(failing).close();
+        }
+        assertEquals(2, this.subject.read(buffer));
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws Exception {
+        final Reader first = Mockito.spy(new StringReader("abcdef"));
+        when(this.resource.openStream()).thenReturn(first, new StringReader("abcdef"));
+        final CharBuffer buffer = CharBuffer.allocate(4);
+
+        this.subject.read(buffer);
+        this.subject.close();
+        verify(first).close();
+
+        buffer.clear();
+        assertEquals(4, this.subject.read(buffer));
+        buffer.flip();
+        assertEquals("abcd", buffer.toString());
+    }
+
+    @Test
+    public void testIndependentSessions() throws Exception {
+        final TextResource resource = new StringTextResource("abcdef",
+                new ResourceUtil());
+        final ReaderSession first = resource.newSession();
+        final ReaderSession second = resource.newSession();
+        final CharBuffer buffer = CharBuffer.allocate(4);
+
+        first.read(buffer);
+        buffer.clear();
+        assertEquals(4, second.read(buffer));
+        buffer.flip();
+        assertEquals("abcd", buffer.toString());
+
+        buffer.clear();
+        assertEquals(2, first.read(buffer));
+        buffer.flip();
+        assertEquals("ef", buffer.toString());
+    }
+
+    @Test
+    public void testScanner() throws Exception {
+        final String line = Strings.repeat("x", 3000);
+        final TextResource resource = new StringTextResource(
+                line + "\n" + line + "\n", new ResourceUtil());
+
+        try (Scanner scanner = new Scanner(resource)) {
+            assertEquals(line, scanner.nextLine());
+            assertEquals(line, scanner.nextLine());
+            assertEquals(false, scanner.hasNextLine());
+        }
+        try (Scanner scanner = new Scanner(resource.newSession())) {
+            assertEquals(line, scanner.nextLine());
+        }
+    }
+}
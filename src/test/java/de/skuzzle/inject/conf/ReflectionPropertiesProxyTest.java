@@ -1,6 +1,8 @@
 package de.skuzzle.inject.conf;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Proxy;
 import java.util.Properties;
@@ -50,33 +52,76 @@ public class ReflectionPropertiesProxyTest {
     }
 
     private final Properties props = new Properties();
+    private final BeanUtil beanUtil = new BeanUtil();
 
 
-    private TestInterface subject;
-
     @Before
     public void setUp() throws Exception {
-        this.subject = (TestInterface) Proxy.newProxyInstance(
+        this.props.put("testInt", "0");
+        this.props.put("testInteger", "0");
+        this.props.put("testLong", "0");
+        this.props.put("testLong2", "0");
+        this.props.put("testBool", "false");
+        this.props.put("testBoolean", "false");
+        this.props.put("testByte", "0");
+        this.props.put("testByte2", "0");
+        this.props.put("testShort", "0");
+        this.props.put("testShort2", "0");
+        this.props.put("testFloat", "0");
+        this.props.put("testFloat2", "0");
+        this.props.put("testDouble", "0");
+        this.props.put("testDouble2", "0");
+        this.props.put("testString", "");
+        this.props.put("noCoerce", "");
+    }
+
+    private TestInterface createProxy() {
+        return (TestInterface) Proxy.newProxyInstance(
                 getClass().getClassLoader(),
                 new Class[] { TestInterface.class },
-                new PropertiesProxy(this.props, new BeanUtil()));
+                new PropertiesProxy(this.props,
+                        this.beanUtil.getBeanInterface(TestInterface.class),
+                        this.beanUtil));
     }
 
     @Test(expected = IllegalStateException.class)
     public void testGetUnknown() throws Exception {
-        this.subject.getTestByte();
+        this.props.remove("testByte");
+        createProxy();
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidValue() throws Exception {
+        this.props.put("testInt", "foo");
+        createProxy();
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testGetWithArg() throws Exception {
-        this.subject.getWithArg(new Object());
+        createProxy().getWithArg(new Object());
+    }
+
+    @Test
+    public void testValuesAreCopied() throws Exception {
+        final TestInterface subject = createProxy();
+        this.props.put("testString", "test");
+        assertEquals("", subject.getTestString());
+    }
+
+    @Test
+    public void testObjectMethods() throws Exception {
+        final TestInterface subject = createProxy();
+        assertTrue(subject.equals(subject));
+        assertFalse(subject.equals(createProxy()));
+        assertEquals(System.identityHashCode(subject), subject.hashCode());
+        assertTrue(subject.toString().startsWith(TestInterface.class.getName()));
     }
 
     @Test
     public void testGetNoCoerce() throws Exception {
         final Object obj = new Object();
         this.props.put("noCoerce", obj);
-        assertEquals(obj, this.subject.getNoCoerce());
+        assertEquals(obj, createProxy().getNoCoerce());
     }
 
     @Test
@@ -84,8 +129,9 @@ public class ReflectionPropertiesProxyTest {
         this.props.put("testInt", "1");
         this.props.put("testInteger", "1");
 
-        assertEquals(1, this.subject.getTestInt());
-        assertEquals(Integer.valueOf(1), this.subject.getTestInteger());
+        final TestInterface subject = createProxy();
+        assertEquals(1, subject.getTestInt());
+        assertEquals(Integer.valueOf(1), subject.getTestInteger());
     }
 
     @Test
@@ -93,8 +139,9 @@ public class ReflectionPropertiesProxyTest {
         this.props.put("testLong", "1");
         this.props.put("testLong2", "1");
 
-        assertEquals(1, this.subject.getTestLong());
-        assertEquals(Long.valueOf(1), this.subject.getTestLong2());
+        final TestInterface subject = createProxy();
+        assertEquals(1, subject.getTestLong());
+        assertEquals(Long.valueOf(1), subject.getTestLong2());
     }
 
     @Test
@@ -102,8 +149,9 @@ public class ReflectionPropertiesProxyTest {
         this.props.put("testByte", "1");
         this.props.put("testByte2", "1");
 
-        assertEquals((byte) 1, this.subject.getTestByte());
-        assertEquals(Byte.valueOf((byte) 1), this.subject.getTestByte2());
+        final TestInterface subject = createProxy();
+        assertEquals((byte) 1, subject.getTestByte());
+        assertEquals(Byte.valueOf((byte) 1), subject.getTestByte2());
     }
 
     @Test
@@ -111,8 +159,9 @@ public class ReflectionPropertiesProxyTest {
         this.props.put("testShort", "1");
         this.props.put("testShort2", "1");
 
-        assertEquals((short) 1, this.subject.getTestShort());
-        assertEquals(Short.valueOf((short) 1), this.subject.getTestShort2());
+        final TestInterface subject = createProxy();
+        assertEquals((short) 1, subject.getTestShort());
+        assertEquals(Short.valueOf((short) 1), subject.getTestShort2());
     }
 
     @Test
@@ -120,8 +169,9 @@ public class ReflectionPropertiesProxyTest {
         this.props.put("testBool", "true");
         this.props.put("testBoolean", "true");
 
-        assertEquals(true, this.subject.isTestBool());
-        assertEquals(Boolean.TRUE, this.subject.isTestBoolean());
+        final TestInterface subject = createProxy();
+        assertEquals(true, subject.isTestBool());
+        assertEquals(Boolean.TRUE, subject.isTestBoolean());
     }
 
     @Test
@@ -129,8 +179,9 @@ public class ReflectionPropertiesProxyTest {
         this.props.put("testFloat", "1.2");
         this.props.put("testFloat2", "1.2");
 
-        assertEquals(1.2f, this.subject.getTestFloat(), .01f);
-        assertEquals(Float.valueOf(1.2f), this.subject.getTestFloat2());
+        final TestInterface subject = createProxy();
+        assertEquals(1.2f, subject.getTestFloat(), .01f);
+        assertEquals(Float.valueOf(1.2f), subject.getTestFloat2());
     }
 
     @Test
@@ -138,13 +189,15 @@ public class ReflectionPropertiesProxyTest {
         this.props.put("testDouble", "1.2");
         this.props.put("testDouble2", "1.2");
 
-        assertEquals(1.2, this.subject.getTestDouble(), .01);
-        assertEquals(Double.valueOf(1.2), this.subject.getTestDouble2());
+        final TestInterface subject = createProxy();
+        assertEquals(1.2, subject.getTestDouble(), .01);
+        assertEquals(Double.valueOf(1.2), subject.getTestDouble2());
     }
 
     @Test
     public void testGetString() throws Exception {
         this.props.put("testString", "test");
-        assertEquals("test", this.subject.getTestString());
+        final TestInterface subject = createProxy();
+        assertEquals("test", subject.getTestString());
     }
 }
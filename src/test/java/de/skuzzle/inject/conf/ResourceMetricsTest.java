@@ -0,0 +1,175 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.ProvisionException;
+import com.google.inject.name.Names;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResourceMetricsTest {
+
+    @Mock
+    private ResourceMetrics metrics;
+    @Mock
+    private TextResource resource;
+
+    private final Key<String> key = Key.get(String.class, Names.named("metrics"));
+
+    @Before
+    public void setUp() throws Exception {
+        when(this.resource.openStream()).then(
+                invocation -> new StringReader("foobar"));
+    }
+
+    private Injector createInjector(boolean bindMetrics) {
+        return Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                if (bindMetrics) {
+                    bind(ResourceMetrics.class).toInstance(
+                            ResourceMetricsTest.this.metrics);
+                }
+                Resources.bind()
+                        .changing()
+                        .resource(ResourceMetricsTest.this.resource)
+                        .containingText()
+                        .named("metrics")
+                        .using(binder());
+            }
+        });
+    }
+
+    @Test
+    public void testReportCachedBinding() throws Exception {
+        final Injector injector = createInjector(true);
+
+        assertEquals("foobar", injector.getInstance(this.key));
+        verify(this.metrics).cacheMiss(this.key);
+        verify(this.metrics).resourceOpened(eq(this.key), anyLong());
+        verify(this.metrics).resourceRead(eq(this.key), eq(6L), anyLong());
+        verify(this.metrics).instanceCreated(eq(this.key), anyLong());
+
+        CachedTextResourceTest.awaitNextCheck();
+        assertEquals("foobar", injector.getInstance(this.key));
+        verify(this.metrics).freshnessChecked(eq(this.key), eq(false), anyLong());
+        verify(this.metrics).instanceReused(this.key);
+        verify(this.metrics, times(1)).instanceCreated(eq(this.key), anyLong());
+    }
+
+    @Test
+    public void testReportUncachedBinding() throws Exception {
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(ResourceMetrics.class).toInstance(ResourceMetricsTest.this.metrics);
+                Resources.bind()
+                        .resource(ResourceMetricsTest.this.resource)
+                        .containingText()
+                        .named("metrics")
+                        .using(binder());
+            }
+        });
+
+        assertEquals("foobar", injector.getInstance(this.key));
+        assertEquals("foobar", injector.getInstance(this.key));
+        verify(this.metrics, times(2)).resourceOpened(eq(this.key), anyLong());
+        verify(this.metrics, times(2)).resourceRead(eq(this.key), eq(6L), anyLong());
+        verify(this.metrics, times(2)).instanceCreated(eq(this.key), anyLong());
+        verify(this.metrics, never()).cacheMiss(this.key);
+    }
+
+    @Test
+    public void testReportRefreshFailure() throws Exception {
+        final Injector injector = createInjector(true);
+        injector.getInstance(this.key);
+
+        final IOException error = new IOException();
+        doThrow(error).when(this.resource).getLastModifiedTime();
+        CachedTextResourceTest.awaitNextCheck();
+        try {
+            injector.getInstance(this.key);
+            fail("Expected ProvisionException");
+        } catch (final ProvisionException e) {
+            verify(this.metrics).refreshFailed(eq(this.key), same(error));
+        }
+    }
+
+    @Test
+    public void testReportCreationFailure() throws Exception {
+        final Injector injector = createInjector(true);
+        when(this.resource.openStream()).thenThrow(new IOException());
+        try {
+            injector.getInstance(this.key);
+            fail("Expected ProvisionException");
+        } catch (final ProvisionException e) {
+            verify(this.metrics).creationFailed(eq(this.key),
+                    any(ProvisionException.class));
+            verify(this.metrics, never()).instanceCreated(eq(this.key), anyLong());
+        }
+    }
+
+    @Test
+    public void testReportSharedResourceForEachBinding() throws Exception {
+        final Key<String> otherKey = Key.get(String.class, Names.named("other"));
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+
+            @Override
+            protected void configure() {
+                bind(ResourceMetrics.class).toInstance(ResourceMetricsTest.this.metrics);
+                Resources.bind()
+                        .changing()
+                        .resource(ResourceMetricsTest.this.resource)
+                        .containingText()
+                        .named("metrics")
+                        .using(binder());
+                Resources.bind()
+                        .changing()
+                        .resource(ResourceMetricsTest.this.resource)
+                        .containingText()
+                        .named("other")
+                        .using(binder());
+            }
+        });
+
+        assertEquals("foobar", injector.getInstance(this.key));
+        verify(this.resource, times(1)).openStream();
+        verify(this.metrics).cacheMiss(this.key);
+        verify(this.metrics).cacheMiss(otherKey);
+        verify(this.metrics).resourceRead(eq(this.key), eq(6L), anyLong());
+        verify(this.metrics).resourceRead(eq(otherKey), eq(6L), anyLong());
+        verify(this.metrics).instanceCreated(eq(this.key), anyLong());
+        verify(this.metrics, never()).instanceCreated(eq(otherKey), anyLong());
+    }
+
+    @Test
+    public void testWithoutMetrics() throws Exception {
+        final Injector injector = createInjector(false);
+        assertEquals("foobar", injector.getInstance(this.key));
+        verify(this.metrics, never()).cacheMiss(this.key);
+    }
+}
@@ -0,0 +1,83 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+public class ResourceRegistryTest {
+
+    private final Supplier<CachedTextResource> factory =
+            () -> mock(CachedTextResource.class);
+
+    private ResourceRegistry subject;
+
+    @Before
+    public void setUp() throws Exception {
+        this.subject = new ResourceRegistry(new CacheBudget(Long.MAX_VALUE),
+                new FileWatcher());
+    }
+
+    @Test
+    public void testShareSameLocation() throws Exception {
+        final CachedTextResource first = this.subject.getCached("foo",
+                StandardCharsets.UTF_8, new TimestampCacheStrategy(), false, 0,
+                this.factory);
+        final CachedTextResource second = this.subject.getCached("foo",
+                StandardCharsets.UTF_8, new TimestampCacheStrategy(), false, 0,
+                this.factory);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testDifferentSettings() throws Exception {
+        final CachingStrategy strategy = new TimestampCacheStrategy();
+        final CachedTextResource first = this.subject.getCached("foo",
+                StandardCharsets.UTF_8, strategy, false, 0, this.factory);
+
+        assertNotSame(first, this.subject.getCached("bar",
+                StandardCharsets.UTF_8, strategy, false, 0, this.factory));
+        assertNotSame(first, this.subject.getCached("foo",
+                null, strategy, false, 0, this.factory));
+        assertNotSame(first, this.subject.getCached("foo",
+                StandardCharsets.UTF_8, strategy, true, 0, this.factory));
+        assertNotSame(first, this.subject.getCached("foo",
+                StandardCharsets.UTF_8, strategy, false, 1000, this.factory));
+        assertNotSame(first, this.subject.getCached("foo",
+                StandardCharsets.UTF_8, ConstantCacheStrategy.getInstance(), false,
+                0, this.factory));
+    }
+
+    @Test
+    public void testDoNotShareCustomStrategies() throws Exception {
+        final CachedTextResource first = this.subject.getCached("foo", null,
+                mock(CachingStrategy.class), false, 0, this.factory);
+        final CachedTextResource second = this.subject.getCached("foo", null,
+                mock(CachingStrategy.class), false, 0, this.factory);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testOneRegistryPerInjector() throws Exception {
+        final Injector first = Guice.createInjector();
+        final Injector second = Guice.createInjector();
+        final ResourceRegistry registry = first.getInstance(ResourceRegistry.class);
+
+        assertSame(registry, first.getInstance(ResourceRegistry.class));
+        assertSame(registry, first.createChildInjector()
+                .getInstance(ResourceRegistry.class));
+        assertNotSame(registry, second.getInstance(ResourceRegistry.class));
+        assertSame(first.getInstance(CacheBudget.class), registry.getBudget());
+        assertSame(first.getInstance(FileWatcher.class), registry.getFileWatcher());
+        assertNotSame(registry.getFileWatcher(),
+                second.getInstance(ResourceRegistry.class).getFileWatcher());
+    }
+}
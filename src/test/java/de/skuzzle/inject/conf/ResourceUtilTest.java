@@ -1,17 +1,34 @@
 package de.skuzzle.inject.conf;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-import java.io.Reader;
-import java.nio.CharBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class ResourceUtilTest {
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     ResourceUtil subject;
 
     @Before
@@ -19,14 +36,72 @@ public class ResourceUtilTest {
         this.subject = new ResourceUtil();
     }
 
+    private static byte[] randomBytes(int size) {
+        final byte[] result = new byte[size];
+        new Random(1337).nextBytes(result);
+        return result;
+    }
+
     @Test
-    public void testReadToBuffer() throws Exception {
-        final TextResource resource = mock(TextResource.class);
-        final CharBuffer buffer = mock(CharBuffer.class);
-        final Reader reader = mock(Reader.class);
-        when(resource.openStream()).thenReturn(reader);
-        when(reader.read(buffer)).thenReturn(1337);
-        assertEquals(1337,  this.subject.readFromSource(resource, buffer));
+    public void testWriteToChannel() throws Exception {
+        final byte[] content = randomBytes(20000);
+        final BinaryResource resource = mock(BinaryResource.class);
+        when(resource.openBinaryStream()).thenReturn(new ByteArrayInputStream(content));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(content.length,
+                this.subject.writeFromSource(resource, Channels.newChannel(out)));
+        assertArrayEquals(content, out.toByteArray());
     }
 
+    @Test
+    public void testTransferFromFile() throws Exception {
+        final byte[] content = randomBytes(20000);
+        final Path path = this.folder.newFile().toPath();
+        Files.write(path, content);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(content.length,
+                this.subject.transferFrom(path, Channels.newChannel(out)));
+        assertArrayEquals(content, out.toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectNonBlockingChannel() throws Exception {
+        final Pipe pipe = Pipe.open();
+        try {
+            pipe.sink().configureBlocking(false);
+            this.subject.write(ByteBuffer.wrap(new byte[1]), pipe.sink());
+        } finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTransferToNonBlockingChannel() throws Exception {
+        final Path path = this.folder.newFile().toPath();
+        final Pipe pipe = Pipe.open();
+        try {
+            pipe.sink().configureBlocking(false);
+            this.subject.transferFrom(path, pipe.sink());
+        } finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    @Test
+    public void testIsJarEntry() throws Exception {
+        assertTrue(this.subject.isJarEntry(new URL("jar:file:/foo.jar!/bar")));
+        assertFalse(this.subject.isJarEntry(new URL("file:/foo/bar")));
+    }
+
+    @Test
+    public void testParseCharset() throws Exception {
+        assertEquals(StandardCharsets.ISO_8859_1,
+                this.subject.getCharset("text/plain; Charset=\"ISO-8859-1\""));
+        assertNull(this.subject.getCharset("text/plain"));
+        assertNull(this.subject.getCharset("text/plain; charset=unknown"));
+    }
 }
@@ -0,0 +1,78 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import javax.inject.Provider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SharedStageTest {
+
+    @Mock
+    private Provider<String> provider;
+
+    @Test
+    public void testLoadOnce() throws Exception {
+        when(this.provider.get()).thenReturn("foo");
+        final SharedStage<String> subject = new SharedStage<>(this.provider,
+                Runnable::run);
+
+        assertEquals("foo", subject.newStage().toCompletableFuture().get());
+        assertEquals("foo", subject.newStage().toCompletableFuture().get());
+        verify(this.provider, times(1)).get();
+    }
+
+    @Test
+    public void testSeparateStagePerConsumer() throws Exception {
+        when(this.provider.get()).thenReturn("foo");
+        final SharedStage<String> subject = new SharedStage<>(this.provider,
+                Runnable::run);
+
+        final CompletableFuture<String> first = subject.newStage()
+                .toCompletableFuture();
+        first.obtrudeValue("bar");
+
+        assertEquals("bar", first.get());
+        assertEquals("foo", subject.newStage().toCompletableFuture().get());
+    }
+
+    @Test
+    public void testLoadAgainAfterFailure() throws Exception {
+        when(this.provider.get())
+                .thenThrow(new IllegalStateException())
+                .thenReturn("foo");
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        final SharedStage<String> subject = new SharedStage<>(this.provider,
+                tasks::add);
+
+        final CompletableFuture<String> failed = subject.newStage()
+                .toCompletableFuture();
+        tasks.remove().run();
+        assertTrue(failed.isCompletedExceptionally());
+
+        final CompletableFuture<String> retried = subject.newStage()
+                .toCompletableFuture();
+        tasks.remove().run();
+        assertEquals("foo", retried.get());
+        verify(this.provider, times(2)).get();
+    }
+
+    @Test
+    public void testNewKeyIsUnique() throws Exception {
+        assertNotEquals(SharedStage.newKey(String.class),
+                SharedStage.newKey(String.class));
+    }
+}
@@ -47,12 +47,20 @@ public class TextResourceFactoryImplTest {
 
     @Test
     public void testNewUrlResource() throws Exception {
-        final URL url = new URL("http://www.google.com");
+        final URL url = new URL("file:/foo/bar");
         final TextResource resource = this.subject.newURLResource(url,
                 Charset.defaultCharset());
         assertTrue(resource instanceof DefaultURLResource);
     }
 
+    @Test
+    public void testNewHttpUrlResource() throws Exception {
+        final URL url = new URL("http://www.google.com");
+        final TextResource resource = this.subject.newURLResource(url,
+                Charset.defaultCharset());
+        assertTrue(resource instanceof HttpURLResource);
+    }
+
     @Test
     public void testNewNioResource() throws Exception {
         final Path path = mock(Path.class);
@@ -0,0 +1,68 @@
+package de.skuzzle.inject.conf;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WatchServiceCacheStrategyTest {
+
+    @Mock
+    private FileWatcher watcher;
+    @Mock
+    private Path path;
+    @Mock
+    private TextResource resource;
+
+    private WatchServiceCacheStrategy subject;
+
+    @Before
+    public void setUp() throws Exception {
+        this.subject = WatchServiceCacheStrategy.watch(this.watcher, this.path);
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        verify(this.watcher).register(this.path, this.subject);
+    }
+
+    @Test
+    public void testNoChange() throws Exception {
+        assertFalse(this.subject.refreshTextCache(this.resource));
+        assertFalse(this.subject.refreshBinaryCache(this.resource));
+    }
+
+    @Test
+    public void testRefreshOnceAfterChange() throws Exception {
+        this.subject.fileChanged();
+        this.subject.fileChanged();
+
+        assertTrue(this.subject.refreshTextCache(this.resource));
+        assertFalse(this.subject.refreshTextCache(this.resource));
+    }
+
+    @Test
+    public void testIndependency() throws Exception {
+        this.subject.fileChanged();
+
+        assertTrue(this.subject.refreshTextCache(this.resource));
+        assertTrue(this.subject.refreshBinaryCache(this.resource));
+        assertFalse(this.subject.refreshBinaryCache(this.resource));
+    }
+
+    @Test
+    public void testAlwaysRefreshWhenCancelled() throws Exception {
+        this.subject.watchCancelled();
+
+        assertTrue(this.subject.refreshTextCache(this.resource));
+        assertTrue(this.subject.refreshTextCache(this.resource));
+    }
+}